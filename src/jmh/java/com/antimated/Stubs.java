@@ -0,0 +1,122 @@
+package com.antimated;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import net.runelite.api.Client;
+
+/**
+ * Stand-ins for the objects RuneLite normally injects, so benchmarks can run without starting the client.
+ */
+public class Stubs
+{
+	/**
+	 * A config that answers every item with its default value, like an empty RuneLite profile.
+	 *
+	 * @return MilestoneLevelsConfig
+	 */
+	public static MilestoneLevelsConfig config()
+	{
+		return config(Collections.emptyMap());
+	}
+
+	/**
+	 * A config that answers the given items with the given values, and every other item with its default value.
+	 *
+	 * @param overrides Map of config method name to value
+	 * @return MilestoneLevelsConfig
+	 */
+	public static MilestoneLevelsConfig config(Map<String, Object> overrides)
+	{
+		return (MilestoneLevelsConfig) Proxy.newProxyInstance(
+			MilestoneLevelsConfig.class.getClassLoader(),
+			new Class<?>[]{MilestoneLevelsConfig.class},
+			(proxy, method, args) ->
+			{
+				if (overrides.containsKey(method.getName()))
+				{
+					return overrides.get(method.getName());
+				}
+
+				if (method.isDefault())
+				{
+					return MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup())
+						.unreflectSpecial(method, method.getDeclaringClass())
+						.bindTo(proxy)
+						.invokeWithArguments(args);
+				}
+
+				return defaultValue(method);
+			});
+	}
+
+	/**
+	 * A client where every method returns 0, false or null.
+	 *
+	 * @return Client
+	 */
+	public static Client client()
+	{
+		return (Client) Proxy.newProxyInstance(
+			Client.class.getClassLoader(),
+			new Class<?>[]{Client.class},
+			(proxy, method, args) -> defaultValue(method));
+	}
+
+	/**
+	 * Sets a field that is normally injected.
+	 *
+	 * @param target Object
+	 * @param name   String
+	 * @param value  Object
+	 */
+	public static void inject(Object target, String name, Object value)
+	{
+		for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass())
+		{
+			try
+			{
+				Field field = type.getDeclaredField(name);
+				field.setAccessible(true);
+				field.set(target, value);
+				return;
+			}
+			catch (NoSuchFieldException e)
+			{
+				// look in the superclass
+			}
+			catch (IllegalAccessException e)
+			{
+				throw new IllegalStateException(e);
+			}
+		}
+
+		throw new IllegalArgumentException("No field " + name + " on " + target.getClass());
+	}
+
+	private static Object defaultValue(Method method)
+	{
+		Class<?> type = method.getReturnType();
+
+		if (type == boolean.class)
+		{
+			return false;
+		}
+		if (type == long.class)
+		{
+			return 0L;
+		}
+		if (type == int.class)
+		{
+			return 0;
+		}
+		if (type.isPrimitive() && type != void.class)
+		{
+			throw new UnsupportedOperationException("Stub does not support " + method);
+		}
+		return null;
+	}
+}
@@ -0,0 +1,133 @@
+package com.antimated.leaderboard;
+
+import com.antimated.Stubs;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.Skill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Leaderboard milestone queries against a filled skill leaderboard, and merging fetched pages into it.
+ * <p>
+ * Entries are 25 per page, with ranks counting down and XP 100 apart, starting just above the player's XP.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardBenchmark
+{
+	private static final int PAGE_SIZE = 25;
+	private static final int PLAYER_RANK = 50_000;
+	private static final int PLAYER_XP = 13_034_431;
+	private static final int XP_STEP = 100;
+
+	@Param({"100", "1000", "10000"})
+	public int size;
+
+	private LeaderboardManager manager;
+	private List<List<LeaderboardEntry>> pages;
+	private List<List<LeaderboardEntry>> overlappingPages;
+
+	@Setup
+	public void setUp()
+	{
+		manager = new LeaderboardManager();
+		Stubs.inject(manager, "client", Stubs.client());
+		Stubs.inject(manager, "config", Stubs.config(Map.of("enableLeaderboard", true)));
+
+		pages = createPages(size, 0);
+		// Every page shares 5 entries with the previous one, and everyone has dropped a rank in between
+		overlappingPages = createPages(size, 5);
+
+		LeaderboardIndex index = manager.getSkillState(Skill.FISHING).validLeaderboardEntries;
+		for (List<LeaderboardEntry> page : pages)
+		{
+			index.addPage(page);
+		}
+	}
+
+	@Benchmark
+	public List<LeaderboardEntry> entriesNoneCrossed()
+	{
+		return manager.getMilestoneLeaderboardEntries(Skill.FISHING, PLAYER_XP, PLAYER_XP + XP_STEP / 2);
+	}
+
+	@Benchmark
+	public List<LeaderboardEntry> entriesOneCrossed()
+	{
+		return manager.getMilestoneLeaderboardEntries(Skill.FISHING, PLAYER_XP, PLAYER_XP + XP_STEP + XP_STEP / 2);
+	}
+
+	@Benchmark
+	public int entriesTenCrossed()
+	{
+		int ranks = 0;
+		for (LeaderboardEntry entry : manager.getMilestoneLeaderboardEntries(Skill.FISHING, PLAYER_XP, PLAYER_XP + 10 * XP_STEP + XP_STEP / 2))
+		{
+			ranks += entry.rank;
+		}
+		return ranks;
+	}
+
+	/**
+	 * Merges all pages into an empty index, like a full crawl up from the player's rank.
+	 */
+	@Benchmark
+	public LeaderboardIndex mergeCrawl()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		for (List<LeaderboardEntry> page : pages)
+		{
+			index.addPage(page);
+		}
+		return index;
+	}
+
+	/**
+	 * Same as mergeCrawl, but with overlapping pages, so every merge de-dupes and shifts ranks.
+	 */
+	@Benchmark
+	public LeaderboardIndex mergeCrawlOverlapping()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		for (List<LeaderboardEntry> page : overlappingPages)
+		{
+			index.addPage(page);
+		}
+		return index;
+	}
+
+	private static List<List<LeaderboardEntry>> createPages(int size, int overlap)
+	{
+		List<List<LeaderboardEntry>> pages = new ArrayList<>();
+		for (int first = 1; first <= size; first += PAGE_SIZE - overlap)
+		{
+			int last = Math.min(first + PAGE_SIZE - 1, size);
+			int shift = overlap > 0 ? pages.size() : 0;
+
+			// Pages are ordered by rank, so by descending XP
+			List<LeaderboardEntry> page = new ArrayList<>(PAGE_SIZE);
+			for (int i = last; i >= first; i--)
+			{
+				page.add(new LeaderboardEntry("Player " + i, PLAYER_RANK - i + shift, 99, PLAYER_XP + i * XP_STEP));
+			}
+			pages.add(page);
+		}
+		return pages;
+	}
+}
@@ -0,0 +1,61 @@
+package com.antimated.leaderboard;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Both leaderboard parsers on pages from the parser test corpus, in pages per second. The gc profiler of the `jmh` task
+ * reports the bytes allocated per page as `gc.alloc.rate.norm`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderboardParserBenchmark
+{
+	@Param({"normal-fishing-page-2040", "normal-attack-page-1-200m-ties", "ironman-woodcutting-page-17"})
+	public String page;
+
+	private byte[] contents;
+
+	@Setup
+	public void setUp() throws IOException
+	{
+		try (InputStream in = LeaderboardParserBenchmark.class.getResourceAsStream("corpus/" + page + ".html"))
+		{
+			if (in == null)
+			{
+				throw new IOException("Missing corpus page: " + page);
+			}
+			contents = in.readAllBytes();
+		}
+	}
+
+	@Benchmark
+	public LeaderboardResult streaming() throws Exception
+	{
+		return LeaderboardParser.parse(new Buffer().write(contents), StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public LeaderboardResult jsoup() throws Exception
+	{
+		return LeaderboardParser.parseDocument(new String(contents, StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,64 @@
+package com.antimated.milestones;
+
+import com.antimated.Stubs;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Milestone lookups that run for every changed skill on every tick, with the default config lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MilestoneBenchmark
+{
+	private LevelMilestoneSource levelSource;
+	private ExperienceMilestoneSource experienceSource;
+
+	@Setup
+	public void setUp()
+	{
+		levelSource = new LevelMilestoneSource();
+		Stubs.inject(levelSource, "config", Stubs.config());
+
+		experienceSource = new ExperienceMilestoneSource();
+		Stubs.inject(experienceSource, "config", Stubs.config());
+	}
+
+	@Benchmark
+	public List<Integer> levelsNoneCrossed()
+	{
+		return levelSource.getMilestoneLevels(71, 72);
+	}
+
+	@Benchmark
+	public List<Integer> levelsCrossed()
+	{
+		return levelSource.getMilestoneLevels(89, 90);
+	}
+
+	@Benchmark
+	public List<Integer> experienceNoneCrossed()
+	{
+		return experienceSource.getMilestoneExperience(12_000_000, 12_000_250);
+	}
+
+	@Benchmark
+	public List<Integer> experienceCrossed()
+	{
+		return experienceSource.getMilestoneExperience(9_999_900, 10_000_150);
+	}
+}
@@ -0,0 +1,75 @@
+package com.antimated.util;
+
+import com.antimated.MilestoneLevelsConfig;
+import com.antimated.Stubs;
+import com.antimated.leaderboard.LeaderboardEntry;
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.Skill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Notification templating and the per-skill config check, with the default config texts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilBenchmark
+{
+	private MilestoneLevelsConfig config;
+	private String levelText;
+	private String experienceText;
+	private String leaderboardText;
+	private LeaderboardEntry entry;
+
+	@Setup
+	public void setUp()
+	{
+		config = Stubs.config();
+		levelText = config.notificationLevelText();
+		experienceText = config.notificationExperienceText();
+		leaderboardText = config.notificationLeaderboardRankText();
+		entry = new LeaderboardEntry("Lynx Titan", 1, 99, 200_000_000);
+	}
+
+	@Benchmark
+	public String replaceSkillAndLevel()
+	{
+		return Util.replaceSkillAndLevel(levelText, Skill.FISHING, 99);
+	}
+
+	@Benchmark
+	public String replaceSkillAndExperience()
+	{
+		return Util.replaceSkillAndExperience(experienceText, Skill.FISHING, 13_034_431);
+	}
+
+	@Benchmark
+	public String replaceLeaderboardValues()
+	{
+		return Util.replaceLeaderboardValues(leaderboardText, Skill.ATTACK, entry);
+	}
+
+	@Benchmark
+	public boolean skillEnabledInConfigFirst()
+	{
+		return Util.skillEnabledInConfig(config, Skill.ATTACK);
+	}
+
+	@Benchmark
+	public boolean skillEnabledInConfigLast()
+	{
+		return Util.skillEnabledInConfig(config, Skill.SAILING);
+	}
+}
@@ -7,6 +7,7 @@ import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
+import net.runelite.client.config.Range;
 import net.runelite.client.ui.JagexColors;
 
 @ConfigGroup(MilestoneLevelsConfig.CONFIG_GROUP)
@@ -135,6 +136,145 @@ public interface MilestoneLevelsConfig extends Config
 		return "1000000, 5000000, 10000000, 15000000, 20000000, 25000000, 30000000, 35000000, 40000000, 45000000, 50000000, 55000000, 60000000, 65000000, 70000000, 75000000, 80000000, 85000000, 90000000, 95000000, 100000000, 125000000, 150000000, 200000000";
 	}
 
+	@ConfigSection(
+		name = "Totals",
+		description = "All total level, total xp and combat level notification settings.",
+		position = 250
+	)
+	String SECTION_TOTALS = "totals";
+
+	@ConfigItem(
+		keyName = "notificationTotalColor",
+		name = "Color",
+		description = "Changes the color of the notification title and text.",
+		section = SECTION_TOTALS,
+		position = 0
+	)
+	default Color notificationTotalColor()
+	{
+		return JagexColors.DARK_ORANGE_INTERFACE_TEXT;
+	}
+
+	@ConfigItem(
+		keyName = "notificationTotalTitle",
+		name = "Title",
+		description = "Can include the $level or $xp variable.",
+		section = SECTION_TOTALS,
+		position = 1
+	)
+	default String notificationTotalTitle()
+	{
+		return "Account milestone";
+	}
+
+	@ConfigItem(
+		keyName = "enableTotalLevel",
+		name = "Total level notifications",
+		description = "Toggle on if total level notifications should be enabled.",
+		section = SECTION_TOTALS,
+		position = 2
+	)
+	default boolean enableTotalLevel()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "notificationTotalLevelText",
+		name = "Total level text",
+		description = "Can include the $level variable.",
+		section = SECTION_TOTALS,
+		position = 3
+	)
+	default String notificationTotalLevelText()
+	{
+		return "Reached a total level of $level!";
+	}
+
+	@ConfigItem(
+		keyName = "showOnTotalLevels",
+		name = "Total levels",
+		description = "Configures total levels to display notifications on, comma separated.",
+		section = SECTION_TOTALS,
+		position = 4
+	)
+	default String showOnTotalLevels()
+	{
+		return "500, 750, 1000, 1250, 1500, 1750, 2000, 2100, 2200, 2300";
+	}
+
+	@ConfigItem(
+		keyName = "enableTotalExperience",
+		name = "Total xp notifications",
+		description = "Toggle on if total xp notifications should be enabled.",
+		section = SECTION_TOTALS,
+		position = 5
+	)
+	default boolean enableTotalExperience()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "notificationTotalExperienceText",
+		name = "Total xp text",
+		description = "Can include the $xp variable.",
+		section = SECTION_TOTALS,
+		position = 6
+	)
+	default String notificationTotalExperienceText()
+	{
+		return "Achieved $xp \nXP in total!";
+	}
+
+	@ConfigItem(
+		keyName = "showOnTotalExperience",
+		name = "Total experience",
+		description = "Configures total xp to display notifications on, comma separated.",
+		section = SECTION_TOTALS,
+		position = 7
+	)
+	default String showOnTotalExperience()
+	{
+		return "10000000, 25000000, 50000000, 100000000, 250000000, 500000000, 1000000000, 2000000000, 4000000000";
+	}
+
+	@ConfigItem(
+		keyName = "enableCombatLevel",
+		name = "Combat level notifications",
+		description = "Toggle on if combat level notifications should be enabled.",
+		section = SECTION_TOTALS,
+		position = 8
+	)
+	default boolean enableCombatLevel()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "notificationCombatLevelText",
+		name = "Combat level text",
+		description = "Can include the $level variable.",
+		section = SECTION_TOTALS,
+		position = 9
+	)
+	default String notificationCombatLevelText()
+	{
+		return "Reached combat level $level!";
+	}
+
+	@ConfigItem(
+		keyName = "showOnCombatLevels",
+		name = "Combat levels",
+		description = "Configures combat levels to display notifications on, comma separated.",
+		section = SECTION_TOTALS,
+		position = 10
+	)
+	default String showOnCombatLevels()
+	{
+		return "50, 75, 100, 110, 120, 126";
+	}
+
 	@ConfigSection(
 		name = "Hiscore Ranks",
 		description = "All hiscore rank notification settings",
@@ -202,6 +342,117 @@ public interface MilestoneLevelsConfig extends Config
 		return ValidLeaderboard.NORMAL;
 	}
 
+	@Range(
+		min = 1,
+		max = 60
+	)
+	@ConfigItem(
+		keyName = "leaderboardRequestsPerMinute",
+		name = "Requests per minute",
+		description = "Limits how many leaderboard pages are requested per minute, across all skills.",
+		section = SECTION_LEADERBOARD,
+		position = 5
+	)
+	default int leaderboardRequestsPerMinute()
+	{
+		return 20;
+	}
+
+	@ConfigItem(
+		keyName = "leaderboardPinnedSkills",
+		name = "Always tracked skills",
+		description = "Skills to fetch leaderboards for right after logging in, comma separated. Other skills are only tracked once they gain XP.",
+		section = SECTION_LEADERBOARD,
+		position = 6
+	)
+	default String leaderboardPinnedSkills()
+	{
+		return "";
+	}
+
+	@Range(
+		min = 5,
+		max = 240
+	)
+	@ConfigItem(
+		keyName = "leaderboardMaxPageAge",
+		name = "Max page age (minutes)",
+		description = "Fetches the page of the next player to pass again shortly before passing them, if it is older than this.",
+		section = SECTION_LEADERBOARD,
+		position = 7
+	)
+	default int leaderboardMaxPageAge()
+	{
+		return 30;
+	}
+
+	@ConfigSection(
+		name = "Rank Thresholds",
+		description = "All rank threshold notification settings, based on your own hiscore ranks.",
+		position = 350
+	)
+	String SECTION_RANKS = "ranks";
+
+	@ConfigItem(
+		keyName = "enableRankMilestones",
+		name = "Enabled",
+		description = "Toggle on to look up your own hiscore ranks while training, and notify when entering the top ranks below. Uses the leaderboard chosen above, but not the leaderboard notifications.",
+		section = SECTION_RANKS,
+		position = 0
+	)
+	default boolean enableRankMilestones()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		keyName = "notificationRankColor",
+		name = "Color",
+		description = "Changes the color of the notification title and text.",
+		section = SECTION_RANKS,
+		position = 1
+	)
+	default Color notificationRankColor()
+	{
+		return JagexColors.DARK_ORANGE_INTERFACE_TEXT;
+	}
+
+	@ConfigItem(
+		keyName = "notificationRankTitle",
+		name = "Title",
+		description = "Can include $rank and $skill variables.",
+		section = SECTION_RANKS,
+		position = 2
+	)
+	default String notificationRankTitle()
+	{
+		return "Rank milestone";
+	}
+
+	@ConfigItem(
+		keyName = "notificationRankText",
+		name = "Text",
+		description = "Can include $rank and $skill variables.",
+		section = SECTION_RANKS,
+		position = 3
+	)
+	default String notificationRankText()
+	{
+		return "Entered the top $rank\nin $skill!";
+	}
+
+	@ConfigItem(
+		keyName = "showOnRanks",
+		name = "Ranks",
+		description = "Configures rank thresholds to display notifications on, comma separated.",
+		section = SECTION_RANKS,
+		position = 4
+	)
+	default String showOnRanks()
+	{
+		return "100000, 50000, 10000, 5000, 1000, 500, 100, 10, 1";
+	}
+
 	@ConfigSection(
 		name = "Skills",
 		description = "Settings for what skills we want to display notifications on",
@@ -1,17 +1,15 @@
 package com.antimated;
 
 import com.antimated.leaderboard.*;
+import com.antimated.milestones.MilestoneManager;
 import com.antimated.notifications.NotificationManager;
+import com.antimated.snapshot.XpSnapshotManager;
 import com.antimated.util.Util;
 import com.antimated.version.VersionManager;
 import com.google.common.primitives.Ints;
 import com.google.inject.Provides;
 
-import java.util.EnumMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.swing.*;
@@ -32,8 +30,6 @@ import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
-import net.runelite.client.util.QuantityFormatter;
-import net.runelite.client.util.Text;
 
 
 @Slf4j
@@ -68,13 +64,34 @@ public class MilestoneLevelsPlugin extends Plugin
 	@Inject
 	private LeaderboardManager leaderboardManager;
 
+	@Inject
+	private PlayerRankTracker rankTracker;
+
+	@Inject
+	private XpSnapshotManager xpSnapshots;
+
+	@Inject
+	private MilestoneManager milestones;
+
 	@Inject
 	@Named("developerMode")
 	boolean developerMode;
 
-	private final Map<Skill, Integer> previousXpMap = new EnumMap<>(Skill.class);
 	private ValidLeaderboard previousChosenLeaderboard = ValidLeaderboard.NORMAL;
 
+	// Set after logging in, until the xp snapshot of the last session has been compared against the current xp.
+	private boolean awaitingXpSnapshot = false;
+
+	// Set while the xp snapshot of the last session is being loaded.
+	private boolean loadingXpSnapshot = false;
+
+	// Set once the xp snapshot is loaded after logging in, until it's closed again. Every region load ends with another
+	// LOGGED_IN state, which must not load it again.
+	private boolean xpSnapshotOpened = false;
+
+	// Counts the snapshot loads, so a load that completes after logging out again is ignored.
+	private int xpSnapshotLoads = 0;
+
 	@Provides
 	MilestoneLevelsConfig provideConfig(ConfigManager configManager)
 	{
@@ -84,7 +101,7 @@ public class MilestoneLevelsPlugin extends Plugin
 	@Override
 	protected void startUp()
 	{
-		clientThread.invoke(this::initializePreviousXpMap);
+		clientThread.invoke(this::initializePreviousXp);
 		previousChosenLeaderboard = config.chosenLeaderboard();
 		notifications.startUp();
 		version.startUp();
@@ -94,7 +111,10 @@ public class MilestoneLevelsPlugin extends Plugin
 	@Override
 	protected void shutDown()
 	{
-		previousXpMap.clear();
+		closeXpSnapshot();
+		milestones.reset();
+		leaderboardManager.shutDown();
+		rankTracker.reset();
 		notifications.shutDown();
 		version.shutDown();
 	}
@@ -110,16 +130,33 @@ public class MilestoneLevelsPlugin extends Plugin
 			case LOGIN_SCREEN:
 			case LOGIN_SCREEN_AUTHENTICATOR:
 			case CONNECTION_LOST:
-				previousXpMap.clear();
+				closeXpSnapshot();
+				milestones.reset();
 				leaderboardManager.reset();
 				break;
+			case LOGGED_IN:
+				openXpSnapshot();
+				break;
 		}
 
 	}
 
 	@Subscribe
 	public void onGameTick(GameTick event) {
+		if (awaitingXpSnapshot)
+		{
+			processXpSnapshot();
+		}
+
+		// Right after logging in, changes are held back until the snapshot of the last session is part of the delta
+		if (!awaitingXpSnapshot)
+		{
+			milestones.process();
+		}
+
+		xpSnapshots.onTick();
 		leaderboardManager.process(event);
+		rankTracker.process();
 	}
 
 	@Subscribe
@@ -129,237 +166,128 @@ public class MilestoneLevelsPlugin extends Plugin
 			leaderboardManager.reset();
 			previousChosenLeaderboard = config.chosenLeaderboard();
 		}
+		leaderboardManager.onConfigChanged();
 	}
 
 	@Subscribe
 	public void onStatChanged(StatChanged statChanged)
 	{
 		final Skill skill = statChanged.getSkill();
-
 		final int currentXp = statChanged.getXp();
-		final int currentLevel = Experience.getLevelForXp(currentXp);
 
-		final int previousXp = previousXpMap.getOrDefault(skill, -1);
-		final int previousLevel = previousXp == -1 ? -1 : Experience.getLevelForXp(previousXp);
-
-		previousXpMap.put(skill, currentXp);
-
-		// Previous xp has to be set, and our current xp has to be higher or equal to the previous xp
-		if (previousXp == -1 || previousXp >= currentXp)
-		{
-			return;
-		}
+		// Changes are collected, and fed to all milestone sources once per tick
+		milestones.update(skill, currentXp);
+		leaderboardManager.onStatChanged(skill, currentXp);
 
-		// Only standard worlds are allowed, and if a player is in LMS, we should abort.
-		if (!Util.isStandardWorld(client) || Util.isInLMS(client))
+		if (Util.isStandardWorld(client) && !Util.isInLMS(client))
 		{
-			log.debug("Not on a standard world nor in LMS.");
-			return;
+			xpSnapshots.update(skill, currentXp);
 		}
+	}
 
-		// Only notify on regular levels when the skill is enabled
-		final List<Integer> milestoneLevels = getMilestoneLevels(previousLevel, currentLevel);
+	/**
+	 * Loads the xp snapshot of the previous session of this account, once the account and its stats are known.
+	 */
+	private void processXpSnapshot()
+	{
+		final long accountHash = client.getAccountHash();
+		final int[] experiences = client.getSkillExperiences();
 
-		if (shouldNotifyForSkill(skill) && !milestoneLevels.isEmpty())
+		// Wait until the account and its stats are known, hitpoints xp can never be 0 once loaded.
+		if (loadingXpSnapshot || accountHash == -1 || experiences == null || experiences[Skill.HITPOINTS.ordinal()] == 0)
 		{
-			log.debug("Milestone levels to notify for after {} check: {}", skill.getName(), milestoneLevels);
-
-			for (int level : milestoneLevels)
-			{
-				notifyLevel(skill, level);
-			}
+			return;
 		}
 
-		// Always notify for virtual levels
-		final List<Integer> milestoneVirtualLevels = getMilestoneVirtualLevels(previousLevel, currentLevel);
-
-		if (shouldNotifyVirtualLevels() && !milestoneVirtualLevels.isEmpty())
+		// Xp on other worlds (leagues, deadman, ...) or in LMS does not belong to the account's snapshot.
+		if (!Util.isStandardWorld(client) || Util.isInLMS(client))
 		{
-			log.debug("Virtual milestone levels to notify for: {}", milestoneVirtualLevels);
-
-			for (int virtualLevel : milestoneVirtualLevels)
-			{
-				notifyLevel(skill, virtualLevel);
-			}
+			awaitingXpSnapshot = false;
+			return;
 		}
 
-		// Only notify on experience when the skill is enabled
-		final List<Integer> milestoneExperience = getMilestoneExperience(previousXp, currentXp);
-
-		if (shouldNotifyForSkill(skill) && !milestoneExperience.isEmpty())
+		loadingXpSnapshot = true;
+		final int load = ++xpSnapshotLoads;
+		xpSnapshots.load(accountHash, previousExperiences ->
 		{
-			log.debug("Milestone experience to notify for after {} check: {}", skill.getName(), milestoneExperience);
-
-			for (int xp : milestoneExperience)
+			if (load == xpSnapshotLoads)
 			{
-				notifyExperience(skill, xp);
-			}
-		}
-
-		final List<LeaderboardEntry> milestoneLeaderboardEntries = getMilestoneLeaderboardEntries(skill, previousXp, currentXp);
-		if (shouldNotifyForSkill(skill) && !milestoneLeaderboardEntries.isEmpty())
-		{
-			log.debug("Milestone leaderboard rank to notify for {}", skill.getName());
-
-			for (LeaderboardEntry entry: milestoneLeaderboardEntries) {
-				notifyLeaderboard(skill, entry);
+				applyXpSnapshot(previousExperiences);
 			}
-		}
+		});
 	}
 
 	/**
-	 * Gets the list of milestone xp values between two numbers from values specified in the milestone experience config
-	 *
-	 * @return List<Integer>
+	 * Loads the xp snapshot on the next ticks, unless it was already loaded since logging in.
 	 */
-	private List<Integer> getMilestoneExperience(int previousXp, int currentXp)
+	private void openXpSnapshot()
 	{
-		return Text.fromCSV(config.showOnExperience()).stream()
-			.distinct()
-			.filter(Util::isInteger)
-			.map(Integer::parseInt)
-			.filter(Util::isValidExperience)
-			.filter(n -> n > previousXp && n <= currentXp)
-			.sorted()
-			.collect(Collectors.toList());
+		if (!xpSnapshotOpened)
+		{
+			xpSnapshotOpened = true;
+			awaitingXpSnapshot = true;
+		}
 	}
 
 	/**
-	 * Gets list of valid real levels from config
-	 *
-	 * @param previousLevel int
-	 * @param currentLevel  int
-	 * @return List<Integer>
+	 * Flushes the xp snapshot and ignores a load that is still in progress, e.g. when logging out or hopping.
 	 */
-	private List<Integer> getMilestoneLevels(int previousLevel, int currentLevel)
+	private void closeXpSnapshot()
 	{
-		return Text.fromCSV(config.showOnLevels()).stream()
-			.distinct()
-			.filter(Util::isInteger)
-			.map(Integer::parseInt)
-			.filter(Util::isValidRealLevel)
-			.filter(n -> n > previousLevel && n <= currentLevel)
-			.sorted()
-			.collect(Collectors.toList());
-	}
-
-	/**
-	 * Gets the list of milestone xp values between two numbers from values that were fetched from the OSRS hiscores
-	 *
-	 * @param skill Skill
-	 * @param previousXp int
-	 * @param currentXp int
-	 * @return List<LeaderboardEntry>
-	 */
-	private List<LeaderboardEntry> getMilestoneLeaderboardEntries(Skill skill, int previousXp, int currentXp) {
-		return leaderboardManager.getMilestoneLeaderboardEntries(skill, previousXp, currentXp);
+		xpSnapshots.close();
+		xpSnapshotOpened = false;
+		awaitingXpSnapshot = false;
+		loadingXpSnapshot = false;
+		xpSnapshotLoads++;
 	}
 
 	/**
-	 * Gets list of valid virtual levels
-	 *
-	 * @param previousLevel int
-	 * @param currentLevel  int
-	 * @return List<Integer>
+	 * Compares the xp snapshot of the previous session of this account against the current xp, so all milestones that
+	 * were crossed in between are part of the next stat delta. Afterward, the snapshot tracks the current session.
 	 */
-	private List<Integer> getMilestoneVirtualLevels(int previousLevel, int currentLevel)
+	private void applyXpSnapshot(int[] previousExperiences)
 	{
-		return IntStream
-			.rangeClosed(Experience.MAX_REAL_LEVEL + 1, Experience.MAX_VIRT_LEVEL)
-			.boxed()
-			.filter(n -> n > previousLevel && n <= currentLevel)
-			.sorted()
-			.collect(Collectors.toList());
-	}
+		loadingXpSnapshot = false;
+		awaitingXpSnapshot = false;
 
-	/**
-	 * Populate initial xp per skill.
-	 */
-	private void initializePreviousXpMap()
-	{
-		if (client.getGameState() != GameState.LOGGED_IN)
+		final int[] experiences = client.getSkillExperiences();
+		xpSnapshots.set(experiences);
+
+		if (previousExperiences == null)
 		{
-			previousXpMap.clear();
+			return;
 		}
-		else
+
+		for (final Skill skill : Skill.values())
 		{
-			for (final Skill skill : Skill.values())
+			final int previousXp = previousExperiences[skill.ordinal()];
+			final int currentXp = experiences[skill.ordinal()];
+
+			if (previousXp > 0 && previousXp < currentXp)
 			{
-				previousXpMap.put(skill, client.getSkillExperience(skill));
+				log.debug("Gained {} xp in {} since the last session", currentXp - previousXp, skill.getName());
+				milestones.update(skill, currentXp);
+				milestones.rebase(skill, previousXp);
 			}
 		}
 	}
 
 	/**
-	 * Adds a level-up notification to the queue if certain requirements are met.
-	 *
-	 * @param skill Skill
-	 * @param level int
-	 */
-	private void notifyLevel(Skill skill, int level)
-	{
-		String title = Util.replaceSkillAndLevel(config.notificationLevelTitle(), skill, level);
-		String text = Util.replaceSkillAndLevel(config.notificationLevelText(), skill, level);
-		int color = Util.getIntValue(config.notificationLevelColor());
-
-		log.debug("Notify {}up milestone reached for {} to level {}", level > Experience.MAX_REAL_LEVEL ? "virtual level-" : "level-", skill.getName(), level);
-		notifications.addNotification(title, text, color);
-	}
-
-	/**
-	 * Adds an xp notification to the queue if certain requirements are met.
-	 *
-	 * @param skill Skill
-	 * @param xp    int
-	 */
-	private void notifyExperience(Skill skill, int xp)
-	{
-		String title = Util.replaceSkillAndExperience(config.notificationExperienceTitle(), skill, xp);
-		String text = Util.replaceSkillAndExperience(config.notificationExperienceText(), skill, xp);
-		int color = Util.getIntValue(config.notificationExperienceColor());
-
-		log.debug("Notify xp milestone reached for {} to xp {}", skill.getName(), QuantityFormatter.formatNumber(xp));
-		notifications.addNotification(title, text, color);
-	}
-
-	/**
-	 * Adds a leaderboard rank notification to the queue if certain requirements are met.
-	 *
-	 * @param skill Skill
-	 * @param leaderboardEntry LeaderboardEntry
+	 * Populate initial xp per skill.
 	 */
-	private void notifyLeaderboard(Skill skill, LeaderboardEntry leaderboardEntry)
+	private void initializePreviousXp()
 	{
-		String title = Util.replaceLeaderboardValues(config.notificationLeaderboardRankTitle(), skill, leaderboardEntry);
-		String text = Util.replaceLeaderboardValues(config.notificationLeaderboardRankText(), skill, leaderboardEntry);
-		int color = Util.getIntValue(config.notificationLeaderboardRankColor());
-
-		log.debug("Notify leaderboard milestone reached for {} to rank {} (xp {})",
-				skill.getName(),
-				QuantityFormatter.formatNumber(leaderboardEntry.rank),
-				QuantityFormatter.formatNumber(leaderboardEntry.xp));
-		notifications.addNotification(title, text, color);
-	}
+		milestones.reset();
 
-	/**
-	 * Check if we should notify for virtual levels
-	 *
-	 * @return boolean
-	 */
-	private boolean shouldNotifyVirtualLevels()
-	{
-		return config.showVirtualLevels();
-	}
+		if (client.getGameState() == GameState.LOGGED_IN)
+		{
+			for (final Skill skill : Skill.values())
+			{
+				milestones.update(skill, client.getSkillExperience(skill));
+			}
 
-	/**
-	 * Check if we should notify for the given skill based off of our config settings.
-	 *
-	 * @param skill Skill
-	 * @return boolean
-	 */
-	private boolean shouldNotifyForSkill(Skill skill)
-	{
-		return Util.skillEnabledInConfig(config, skill);
+			openXpSnapshot();
+		}
 	}
 
 	public void migrate()
@@ -414,6 +342,10 @@ public class MilestoneLevelsPlugin extends Plugin
 					version.clearLastUpdateMessage();
 					break;
 
+				case "leaderboard":
+					log.info(leaderboardManager.getDiagnostics());
+					break;
+
 				case "setstats":
 					for (Skill skill : Skill.values())
 					{
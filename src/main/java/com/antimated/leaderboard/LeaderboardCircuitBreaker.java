@@ -0,0 +1,132 @@
+package com.antimated.leaderboard;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry policy for a single hiscores endpoint, shared by the player lookup and every skill's leaderboard requests.
+ * <p>
+ * While CLOSED, requests go through as normal. After a failure, further requests wait out an exponential backoff with
+ * jitter. After `FAILURE_THRESHOLD` consecutive failures the breaker OPENS and no requests are made until the probe
+ * delay has passed. It then goes HALF_OPEN and lets a single probe request through. A successful probe closes the
+ * breaker and tracking resumes, a failed one opens it again with a longer probe delay.
+ * <p>
+ * Only network failures should be reported to the breaker. A page that fails to parse is not an outage. Every request
+ * must still end in `onSuccess`, `onFailure` or `releaseProbe`, since a probe that never reports back would keep the
+ * breaker HALF_OPEN without letting any request through.
+ */
+public class LeaderboardCircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN,
+    }
+
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long BASE_BACKOFF_MILLIS = 2_000;
+    private static final long MAX_BACKOFF_MILLIS = 60_000;
+    private static final long BASE_PROBE_MILLIS = 60_000;
+    private static final long MAX_PROBE_MILLIS = 15 * 60_000;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    // Number of times the breaker opened since it was last closed, which determines the probe delay.
+    private int openCount = 0;
+    private long nextAttemptMillis = 0;
+    private boolean probeInFlight = false;
+
+    /**
+     * Checks whether a request may be made now, without changing any state.
+     *
+     * @param nowMillis long
+     * @return boolean
+     */
+    public boolean canRequest(long nowMillis) {
+        switch (state) {
+            case CLOSED:
+            case OPEN:
+                return nowMillis >= nextAttemptMillis;
+            case HALF_OPEN:
+                return !probeInFlight;
+        }
+        return false;
+    }
+
+    /**
+     * Must be called right before making a request that `canRequest` allowed. While OPEN, this request becomes the
+     * probe.
+     *
+     * @param nowMillis long
+     */
+    public void onRequest(long nowMillis) {
+        if (state == State.OPEN && nowMillis >= nextAttemptMillis) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            probeInFlight = true;
+        }
+    }
+
+    public void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openCount = 0;
+        nextAttemptMillis = 0;
+        probeInFlight = false;
+    }
+
+    public void onFailure(long nowMillis) {
+        consecutiveFailures++;
+        if (state == State.OPEN) {
+            // This comes from a request made before the breaker opened, the probe delay stays as is.
+            return;
+        }
+
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= FAILURE_THRESHOLD) {
+            state = State.OPEN;
+            openCount++;
+            nextAttemptMillis = nowMillis + jitter(delay(BASE_PROBE_MILLIS, openCount, MAX_PROBE_MILLIS));
+        } else {
+            nextAttemptMillis = nowMillis + jitter(delay(BASE_BACKOFF_MILLIS, consecutiveFailures, MAX_BACKOFF_MILLIS));
+        }
+    }
+
+    /**
+     * Ends the probe without an outcome for the endpoint, e.g. because it was cancelled or its page failed to parse. The
+     * breaker stays HALF_OPEN, and the next request becomes the probe.
+     */
+    public void releaseProbe() {
+        probeInFlight = false;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public long getNextAttemptMillis() {
+        return nextAttemptMillis;
+    }
+
+    /**
+     * Doubles `base` for every attempt after the first, up to `max`.
+     */
+    private static long delay(long base, int attempt, long max) {
+        return Math.min(max, base << Math.min(attempt - 1, 20));
+    }
+
+    /**
+     * Picks a random delay between half of and the full `delay`, so clients that failed together don't retry together.
+     */
+    private static long jitter(long delay) {
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    @Override
+    public String toString() {
+        return state + ", " + consecutiveFailures + " consecutive failure(s)";
+    }
+}
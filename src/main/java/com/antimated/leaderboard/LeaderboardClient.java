@@ -3,32 +3,85 @@ package com.antimated.leaderboard;
 import com.google.gson.Gson;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Skill;
+import net.runelite.client.RuneLite;
 import okhttp3.*;
+import okio.BufferedSource;
 
 import javax.inject.Inject;
+import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.CompletableFuture;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Facilitates making requests to the OSRS hiscores website, specifically for "leaderboard" pages under specific skills.
  * The interface returns that data as `LeaderboardResult` objects, which currently must be assembled by parsing HTML
  * pages with `LeaderboardParser`. This parsing is done because there is no known public-facing API for the leaderboard
  * data.
+ * <p>
+ * Requests go through a dedicated `OkHttpClient` derived from RuneLite's, with a disk cache in the RuneLite cache
+ * directory. The hiscores don't send useful caching headers, so pages are forced to be fresh for `MAX_AGE_SECONDS`.
+ * After that, OkHttp revalidates them with a conditional request if the server supplied an ETag or Last-Modified header.
+ * <p>
+ * Reading a page stops once the leaderboard table is parsed, unless the page is being written to the cache, which
+ * OkHttp only commits once the body has been read to the end.
  */
 @Slf4j
 public class LeaderboardClient {
+    private static final long CACHE_SIZE = 10 * 1024 * 1024;
+    private static final int MAX_AGE_SECONDS = 60;
+
     private final OkHttpClient client;
     private final Gson gson;
 
+    // Responses served from the HTTP cache without a request, fetched in full, and confirmed unchanged by the server.
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    private final AtomicInteger cacheMisses = new AtomicInteger();
+    private final AtomicInteger cacheRevalidated = new AtomicInteger();
+
     @Inject
     private LeaderboardClient(OkHttpClient client, Gson gson)
     {
-        this.client = client;
+        this(client, gson, new File(RuneLite.CACHE_DIR, "milestone-levels"), MAX_AGE_SECONDS);
+    }
+
+    /**
+     * Creates a client with its HTTP cache in `cacheDir`, which keeps pages fresh for `maxAgeSeconds`. Without a
+     * `cacheDir`, pages aren't cached.
+     */
+    LeaderboardClient(OkHttpClient client, Gson gson, File cacheDir, int maxAgeSeconds)
+    {
+        String cacheControl = "max-age=" + maxAgeSeconds;
+        this.client = client.newBuilder()
+            .cache(cacheDir == null ? null : new Cache(cacheDir, CACHE_SIZE))
+            .addNetworkInterceptor(chain -> {
+                Response response = chain.proceed(chain.request());
+                if (!response.isSuccessful() && response.code() != 304) {
+                    return response;
+                }
+                return response.newBuilder()
+                    .removeHeader("Pragma")
+                    .header("Cache-Control", cacheControl)
+                    .build();
+            })
+            .build();
         this.gson = gson;
     }
 
-    public CompletableFuture<LeaderboardResult> lookupAsync(Skill skill, int page, LeaderboardEndpoint endpoint) {
-        HttpUrl url = endpoint.getLeaderboardURL().newBuilder()
+    public String getCacheStats() {
+        return cacheHits.get() + " hits, " + cacheMisses.get() + " misses, " + cacheRevalidated.get() + " revalidated";
+    }
+
+    /**
+     * Requests a single leaderboard page. The returned request can be cancelled, which also cancels the HTTP call.
+     */
+    public LeaderboardRequest lookupAsync(Skill skill, int page, LeaderboardEndpoint endpoint) {
+        return lookupAsync(skill, page, endpoint.getLeaderboardURL());
+    }
+
+    LeaderboardRequest lookupAsync(Skill skill, int page, HttpUrl leaderboardURL) {
+        HttpUrl url = leaderboardURL.newBuilder()
             .addQueryParameter("table", String.valueOf(SkillTable.valueOf(skill.name()).tableNumber))
             .addQueryParameter("page", String.valueOf(page))
             .build();
@@ -37,17 +90,40 @@ public class LeaderboardClient {
             .url(url)
             .build();
 
-        CompletableFuture<LeaderboardResult> future = new CompletableFuture<>();
-        client.newCall(request).enqueue(new Callback() {
+        Call call = client.newCall(request);
+        LeaderboardRequest future = new LeaderboardRequest(call);
+        call.enqueue(new Callback() {
             @Override
             public void onFailure(Call call, IOException e) { future.completeExceptionally(e); }
             @Override
             public void onResponse(Call call, Response response) {
                 try (response) {
+                    countCacheUse(response);
+                    if (future.isCancelled()) {
+                        return;
+                    }
+
                     LeaderboardResult result;
                     try {
-                        String documentContents = response.body().string();
-                        result = LeaderboardParser.parseDocument(documentContents);
+                        // Error pages during an outage are reported as network failures, so they count towards the
+                        // circuit breaker instead of failing to parse.
+                        if (!response.isSuccessful()) {
+                            throw new IOException("Unexpected response code: " + response.code());
+                        }
+
+                        // The leaderboard table is parsed as the body comes in, and the rest of the page is skipped
+                        // by closing the response. Pages that are being written to the cache are still read to the
+                        // end, since OkHttp aborts the cache write when the body is closed early.
+                        ResponseBody body = response.body();
+                        MediaType contentType = body.contentType();
+                        Charset charset = contentType == null ? StandardCharsets.UTF_8 : contentType.charset(StandardCharsets.UTF_8);
+                        BufferedSource source = body.source();
+                        result = LeaderboardParser.parse(source, charset);
+                        if (isBeingCached(response)) {
+                            while (!source.exhausted()) {
+                                source.skip(source.getBuffer().size());
+                            }
+                        }
                         future.complete(result);
                     } catch (Exception e) {
                         future.completeExceptionally(e);
@@ -59,5 +135,27 @@ public class LeaderboardClient {
         return future;
     }
 
+    /**
+     * Returns whether OkHttp writes the body of a response to the cache while it's read. That is the case for full
+     * responses from the network that may be stored, but not for responses served from the cache, including ones the
+     * server confirmed to be unchanged.
+     */
+    private boolean isBeingCached(Response response) {
+        Response networkResponse = response.networkResponse();
+        return client.cache() != null && networkResponse != null && networkResponse.code() != 304 &&
+            !response.cacheControl().noStore() && !response.request().cacheControl().noStore();
+    }
+
+    private void countCacheUse(Response response) {
+        Response networkResponse = response.networkResponse();
+        if (networkResponse == null) {
+            cacheHits.incrementAndGet();
+        } else if (response.cacheResponse() != null && networkResponse.code() == 304) {
+            cacheRevalidated.incrementAndGet();
+        } else {
+            cacheMisses.incrementAndGet();
+        }
+    }
+
 
 }
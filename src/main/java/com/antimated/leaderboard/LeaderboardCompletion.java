@@ -0,0 +1,55 @@
+package com.antimated.leaderboard;
+
+import net.runelite.api.Skill;
+import net.runelite.client.hiscore.HiscoreResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+
+/**
+ * Outcome of a request to the hiscores, or of reading the stored pages of a skill from disk, pushed into the
+ * `LeaderboardManager` inbox by the thread that completed it and handled on the client thread during the next game tick.
+ * <p>
+ * `request` identifies the request that completed. The manager drops completions of requests it no longer tracks, e.g.
+ * ones that were cancelled by a reset. Stored pages are never dropped, as the page cache outlives a reset.
+ */
+class LeaderboardCompletion {
+    // The skill the leaderboard page was requested for, or null for player lookups.
+    final Skill skill;
+    // The requested leaderboard page, or 0 for player lookups.
+    final int page;
+    final Future<?> request;
+    final LeaderboardResult leaderboardResult;
+    final HiscoreResult hiscoreResult;
+    // The exception the request failed with, or null on success.
+    final Throwable error;
+    // The endpoint and pages read from disk, or null for requests.
+    final LeaderboardEndpoint endpoint;
+    final Map<Integer, LeaderboardPageStore.StoredPage> storedPages;
+
+    private LeaderboardCompletion(Skill skill, int page, Future<?> request, LeaderboardResult leaderboardResult, HiscoreResult hiscoreResult, Throwable error,
+                                  LeaderboardEndpoint endpoint, Map<Integer, LeaderboardPageStore.StoredPage> storedPages) {
+        this.skill = skill;
+        this.page = page;
+        this.request = request;
+        this.leaderboardResult = leaderboardResult;
+        this.hiscoreResult = hiscoreResult;
+        this.endpoint = endpoint;
+        this.storedPages = storedPages;
+        // Dependent stages wrap the original exception, unwrap it so callers can check for e.g. an IOException.
+        this.error = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    static LeaderboardCompletion ofPage(Skill skill, int page, Future<?> request, LeaderboardResult result, Throwable error) {
+        return new LeaderboardCompletion(skill, page, request, result, null, error, null, null);
+    }
+
+    static LeaderboardCompletion ofPlayer(Future<?> request, HiscoreResult result, Throwable error) {
+        return new LeaderboardCompletion(null, 0, request, null, result, error, null, null);
+    }
+
+    static LeaderboardCompletion ofStoredPages(LeaderboardEndpoint endpoint, Skill skill, Map<Integer, LeaderboardPageStore.StoredPage> pages) {
+        return new LeaderboardCompletion(skill, 0, null, null, null, null, endpoint, pages);
+    }
+}
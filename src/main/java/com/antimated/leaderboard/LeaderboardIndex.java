@@ -0,0 +1,488 @@
+package com.antimated.leaderboard;
+
+import net.runelite.api.Experience;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.RandomAccess;
+
+/**
+ * Sorted store of the leaderboard entries of a single skill. Entries are kept as parallel primitive arrays ordered by
+ * ascending XP, without duplicate XP values, so the last entry is the one with the best (numerically lowest) rank.
+ * <p>
+ * Names are stored once in a name table and referenced by index. Levels are not stored, since the level shown on the
+ * leaderboards follows from the XP.
+ * <p>
+ * Players that have been passed are consumed from the low end by advancing a head index, rather than by shifting the
+ * arrays. The consumed slots are only reclaimed when the arrays would otherwise have to grow, so that cost is amortized
+ * over many pages.
+ * <p>
+ * Range queries are answered with binary searches and return views over the arrays. Views are only valid until the
+ * index is modified, which is fine since all reads and writes happen on the client thread. Positions passed to the
+ * accessors are relative to the lowest retained entry.
+ */
+public class LeaderboardIndex {
+    private static final int INITIAL_CAPACITY = 128;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    // Rough size of a `nameXps` mapping: the map node, its slot in the table and the boxed XP value.
+    private static final int NAME_XP_BYTES = 52;
+
+    private int[] xps = new int[INITIAL_CAPACITY];
+    private int[] ranks = new int[INITIAL_CAPACITY];
+    private int[] nameIndexes = new int[INITIAL_CAPACITY];
+    // Entries live in [head, end) of the arrays.
+    private int head = 0;
+    private int end = 0;
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int nameCount = 0;
+
+    // Scratch space for the entries that overlap with a page while merging it in, reused between merges.
+    private int[] mergeXps = new int[0];
+    private int[] mergeRanks = new int[0];
+    private int[] mergeNameIndexes = new int[0];
+
+    // The XP of the last entry added for each name, to find the older entry of a player on a new page without searching
+    // by name. Entries are consumed and collapsed without updating it, so it is only a hint that is checked against the
+    // arrays. It's rebuilt along with the name table, which bounds its size.
+    private final Map<String, Integer> nameXps = new HashMap<>();
+    // The names on the page being merged, and the slots of their older entries, reused between merges.
+    private final Set<String> pageNames = new HashSet<>();
+    private int[] droppedSlots = new int[0];
+
+    public int size() {
+        return end - head;
+    }
+
+    public boolean isEmpty() {
+        return end == head;
+    }
+
+    public int getXp(int index) {
+        return xps[head + index];
+    }
+
+    public int getRank(int index) {
+        return ranks[head + index];
+    }
+
+    public String getName(int index) {
+        return names[nameIndexes[head + index]];
+    }
+
+    public LeaderboardEntry get(int index) {
+        return entryAt(head + index);
+    }
+
+    public void clear() {
+        head = 0;
+        end = 0;
+        nameCount = 0;
+        Arrays.fill(names, null);
+        nameXps.clear();
+    }
+
+    /**
+     * Returns all entries whose XP value lies between previousXp and currentXp exclusive, ordered by ascending XP.
+     *
+     * @param previousXp int
+     * @param currentXp int
+     * @return List<LeaderboardEntry> view over the index, or an empty list when nothing lies in between.
+     */
+    public List<LeaderboardEntry> between(int previousXp, int currentXp) {
+        if (head == end || previousXp >= currentXp) {
+            return Collections.emptyList();
+        }
+
+        int from = upperBound(previousXp);
+        int to = lowerBound(currentXp);
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        return new RangeView(from, to);
+    }
+
+    /**
+     * Merges a page of entries as returned by the hiscores, which is ordered by rank (descending XP).
+     * <p>
+     * Older entries of players that appear on the page are dropped wherever they are, since the page is more recent.
+     * Players that gained XP since they were fetched have their old entry below the page, which is looked up by the XP
+     * last added for their name rather than by searching the index. Closing the gaps moves the shorter side of them,
+     * usually the few entries between the page and the old entries of players that just moved up.
+     * <p>
+     * Only the retained entries with an XP value at or above the lowest XP on the page take part in the merge. Pages
+     * are normally fetched from low to high XP, so that overlap is usually empty and the cost is proportional to the
+     * page size. Within the merge:
+     * <ul>
+     *     <li>entries sharing an XP value are collapsed into the one with the best (numerically lowest) rank,</li>
+     *     <li>ranks of older entries are pushed down where the page shows they have shifted since they were
+     *     fetched, so ranks keep decreasing with increasing XP.</li>
+     * </ul>
+     *
+     * @param page List<LeaderboardEntry>
+     */
+    public void addPage(List<LeaderboardEntry> page) {
+        int pageSize = page.size();
+        if (pageSize == 0) {
+            return;
+        }
+
+        // Make room for the names up front, since compacting the name table halfway through the merge is not possible.
+        ensureNameCapacity(pageSize);
+
+        // Drop older entries of these players below the page.
+        int from = lowerBound(page.get(pageSize - 1).xp);
+        if (droppedSlots.length < pageSize) {
+            droppedSlots = new int[pageSize];
+        }
+        int dropped = 0;
+        pageNames.clear();
+        for (LeaderboardEntry entry : page) {
+            pageNames.add(entry.name);
+            int slot = findEntryBelow(entry.name, from);
+            if (slot != -1) {
+                droppedSlots[dropped++] = slot;
+            }
+        }
+        from = removeSlots(dropped, from);
+
+        // Move the overlapping part of the index out of the way.
+        int overlap = end - from;
+        ensureMergeCapacity(overlap);
+        System.arraycopy(xps, from, mergeXps, 0, overlap);
+        System.arraycopy(ranks, from, mergeRanks, 0, overlap);
+        System.arraycopy(nameIndexes, from, mergeNameIndexes, 0, overlap);
+        from = ensureCapacity(from, overlap + pageSize);
+
+        // Standard merge of two ascending sequences: the overlap, and the page read back to front.
+        int write = from;
+        int i = 0;
+        int j = pageSize - 1;
+        while (i < overlap || j >= 0) {
+            if (j < 0 || (i < overlap && mergeXps[i] < page.get(j).xp)) {
+                if (!pageNames.contains(names[mergeNameIndexes[i]])) {
+                    write = append(write, from, mergeXps[i], mergeRanks[i], mergeNameIndexes[i]);
+                }
+                i++;
+            } else {
+                LeaderboardEntry entry = page.get(j);
+                write = append(write, from, entry.xp, entry.rank, addName(entry.name));
+                nameXps.put(entry.name, entry.xp);
+                j--;
+            }
+        }
+        end = write;
+
+        // Ranks must strictly decrease with increasing XP. Fix up older entries below the merged range whose rank
+        // has shifted, stopping at the first entry that is still consistent.
+        for (int k = end - 2; k >= head; k--) {
+            if (ranks[k] > ranks[k + 1]) {
+                if (k < from) {
+                    break;
+                }
+                continue;
+            }
+            ranks[k] = ranks[k + 1] + 1;
+        }
+    }
+
+    /**
+     * Returns the slot below `from` that holds the last entry added for a name, or -1 if it isn't retained anymore.
+     */
+    private int findEntryBelow(String name, int from) {
+        Integer xp = nameXps.get(name);
+        if (xp == null) {
+            return -1;
+        }
+        int slot = lowerBound(xp);
+        return slot < from && xps[slot] == xp && name.equals(names[nameIndexes[slot]]) ? slot : -1;
+    }
+
+    /**
+     * Removes the first `count` slots in `droppedSlots`, all below `from`. Either the entries below the highest of them
+     * move up, or the entries above the lowest of them move down, whichever are fewer.
+     *
+     * @return `from`, adjusted for the entries having moved.
+     */
+    private int removeSlots(int count, int from) {
+        if (count == 0) {
+            return from;
+        }
+        Arrays.sort(droppedSlots, 0, count);
+        int lowest = droppedSlots[0];
+        int highest = droppedSlots[count - 1];
+
+        if (highest - head <= end - lowest) {
+            int write = highest;
+            int d = count - 1;
+            for (int k = highest; k >= head; k--) {
+                if (d >= 0 && k == droppedSlots[d]) {
+                    d--;
+                    continue;
+                }
+                moveEntry(k, write--);
+            }
+            head = write + 1;
+            return from;
+        }
+
+        int write = lowest;
+        int d = 0;
+        for (int k = lowest; k < end; k++) {
+            if (d < count && k == droppedSlots[d]) {
+                d++;
+                continue;
+            }
+            moveEntry(k, write++);
+        }
+        end = write;
+        return from - count;
+    }
+
+    private void moveEntry(int from, int to) {
+        if (from != to) {
+            xps[to] = xps[from];
+            ranks[to] = ranks[from];
+            nameIndexes[to] = nameIndexes[from];
+        }
+    }
+
+    /**
+     * Replaces the entries within the XP range of a page, which was fetched again, with the entries on that page.
+     * Unlike `addPage`, entries in that range that aren't on the page anymore are dropped as well, e.g. of players
+     * that changed their name.
+     *
+     * @param page List<LeaderboardEntry>
+     */
+    public void replacePage(List<LeaderboardEntry> page) {
+        if (page.isEmpty()) {
+            return;
+        }
+
+        int from = lowerBound(page.get(page.size() - 1).xp);
+        int to = upperBound(page.get(0).xp);
+        System.arraycopy(xps, to, xps, from, end - to);
+        System.arraycopy(ranks, to, ranks, from, end - to);
+        System.arraycopy(nameIndexes, to, nameIndexes, from, end - to);
+        end -= to - from;
+        addPage(page);
+    }
+
+    /**
+     * Appends an entry to the merged range starting at `from`, collapsing it with the previous entry if both share an
+     * XP value.
+     *
+     * @return the new write position.
+     */
+    private int append(int write, int from, int xp, int rank, int nameIndex) {
+        if (write > from && xps[write - 1] == xp) {
+            if (rank >= ranks[write - 1]) {
+                return write;
+            }
+            write--;
+        }
+        xps[write] = xp;
+        ranks[write] = rank;
+        nameIndexes[write] = nameIndex;
+        return write + 1;
+    }
+
+    /**
+     * Removes all entries with an XP value lower than or equal to `xp`, i.e. players that have already been passed.
+     *
+     * @param xp int
+     */
+    public void removeUpTo(int xp) {
+        if (head == end || xps[head] > xp) {
+            return;
+        }
+
+        head = upperBound(xp);
+        if (head == end) {
+            head = 0;
+            end = 0;
+        }
+    }
+
+    /**
+     * Removes the entries with the highest XP values, keeping the `count` lowest. The arrays and name table shrink
+     * along, so the memory is actually released.
+     *
+     * @param count int
+     */
+    public void keepLowest(int count) {
+        if (count >= end - head) {
+            return;
+        }
+
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < count) {
+            capacity *= 2;
+        }
+        xps = Arrays.copyOfRange(xps, head, head + capacity);
+        ranks = Arrays.copyOfRange(ranks, head, head + capacity);
+        nameIndexes = Arrays.copyOfRange(nameIndexes, head, head + capacity);
+        head = 0;
+        end = count;
+        mergeXps = new int[0];
+        mergeRanks = new int[0];
+        mergeNameIndexes = new int[0];
+
+        compactNames();
+        names = Arrays.copyOf(names, Math.max(capacity, nameCount));
+    }
+
+    /**
+     * Estimates the memory held by the index in bytes, including the XP looked up by name. Names are shared, so they are
+     * added to `names` to be counted once by the caller.
+     */
+    public long getRetainedBytes(Set<String> names) {
+        for (int i = 0; i < nameCount; i++) {
+            names.add(this.names[i]);
+        }
+        return 3L * (ARRAY_HEADER_BYTES + 4L * xps.length)
+            + 3L * (ARRAY_HEADER_BYTES + 4L * mergeXps.length)
+            + ARRAY_HEADER_BYTES + 4L * this.names.length
+            + (long) NAME_XP_BYTES * nameXps.size();
+    }
+
+    /**
+     * Index of the first entry with an XP value greater than `xp`.
+     */
+    private int upperBound(int xp) {
+        int low = head;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xps[mid] <= xp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Index of the first entry with an XP value greater than or equal to `xp`.
+     */
+    private int lowerBound(int xp) {
+        int low = head;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (xps[mid] < xp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int addName(String name) {
+        names[nameCount] = name;
+        return nameCount++;
+    }
+
+    private void ensureNameCapacity(int count) {
+        if (nameCount + count <= names.length) {
+            return;
+        }
+        compactNames();
+        if (nameCount + count > names.length) {
+            names = Arrays.copyOf(names, Math.max(nameCount + count, names.length * 2));
+        }
+    }
+
+    /**
+     * Drops names that are no longer referenced by any entry, and their XP.
+     */
+    private void compactNames() {
+        String[] compacted = new String[names.length];
+        int count = 0;
+        nameXps.clear();
+        for (int i = head; i < end; i++) {
+            compacted[count] = names[nameIndexes[i]];
+            nameXps.put(compacted[count], xps[i]);
+            nameIndexes[i] = count++;
+        }
+        names = compacted;
+        nameCount = count;
+    }
+
+    private void ensureMergeCapacity(int capacity) {
+        if (capacity <= mergeXps.length) {
+            return;
+        }
+        mergeXps = new int[capacity];
+        mergeRanks = new int[capacity];
+        mergeNameIndexes = new int[capacity];
+    }
+
+    /**
+     * Ensures `count` entries can be written starting at `from`. Consumed slots below the head are reclaimed first,
+     * and the arrays only grow if that is not enough.
+     *
+     * @return `from`, adjusted for the entries having moved.
+     */
+    private int ensureCapacity(int from, int count) {
+        if (from + count <= xps.length) {
+            return from;
+        }
+
+        int shift = head;
+        int live = end - head;
+        int capacity = xps.length;
+        while (from - shift + count > capacity) {
+            capacity *= 2;
+        }
+
+        if (capacity == xps.length) {
+            System.arraycopy(xps, head, xps, 0, live);
+            System.arraycopy(ranks, head, ranks, 0, live);
+            System.arraycopy(nameIndexes, head, nameIndexes, 0, live);
+        } else {
+            xps = Arrays.copyOfRange(xps, head, head + capacity);
+            ranks = Arrays.copyOfRange(ranks, head, head + capacity);
+            nameIndexes = Arrays.copyOfRange(nameIndexes, head, head + capacity);
+        }
+        head = 0;
+        end = live;
+        return from - shift;
+    }
+
+    private LeaderboardEntry entryAt(int index) {
+        int xp = xps[index];
+        return new LeaderboardEntry(names[nameIndexes[index]], ranks[index], Math.min(Experience.getLevelForXp(xp), Experience.MAX_REAL_LEVEL), xp);
+    }
+
+    private class RangeView extends AbstractList<LeaderboardEntry> implements RandomAccess {
+        private final int from;
+        private final int to;
+
+        RangeView(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public LeaderboardEntry get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (to - from));
+            }
+            return entryAt(from + index);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.antimated.leaderboard;
 
 import com.antimated.MilestoneLevelsConfig;
 import com.antimated.util.Util;
+import com.google.common.annotations.VisibleForTesting;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
@@ -10,29 +11,35 @@ import net.runelite.api.events.GameTick;
 import net.runelite.client.hiscore.HiscoreClient;
 import net.runelite.client.hiscore.HiscoreEndpoint;
 import net.runelite.client.hiscore.HiscoreResult;
-import net.runelite.client.hiscore.HiscoreSkill;
+import net.runelite.client.util.Text;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Issues requests and processes results from the OSRS hiscores website for each tracked skill to maintain lists of XP
  * milestones. Also controls rate limiting and retries, to limit strain on the hiscores page.
  * <p>
- * The objective is to ensure that these lists keep up with the player gaining XP. To accomplish this, an arbitrary
- * minimum list length is chosen `MINIMUM_LEADERBOARD_LIST_LENGTH`. If there are fewer milestones than the minimum list
- * size for a given skill, the LeaderboardManager will issue a request for more leaderboard data. At most one active
- * request may exist at a time for each skill.
+ * The objective is to ensure that these lists keep up with the player gaining XP. To accomplish this, each skill
+ * buffers the milestones the player is predicted to pass in the next few minutes. If the buffer of a given skill falls
+ * short, the LeaderboardManager will issue requests for more leaderboard data. Skills that are short by several pages
+ * request a window of consecutive pages at once, bounded by the scheduler's limit on concurrent requests.
+ * <p>
+ * Only skills that are being trained are tracked: a skill is crawled from its first XP gain of the session, and goes
+ * dormant again after `DORMANT_MILLIS` without gains. Dormant skills keep their buffer, but it isn't refilled. Skills
+ * pinned in the config are always tracked.
  * <p>
  * All logic is performed on the main game thread as part of `onGameTick`, while requests are performed asynchronously.
  * Because of the asynchronous nature, LeaderboardManager operates on a state machine to ensure correct sequencing of
- * operations.
+ * operations. Completed requests are pushed into an inbox by the thread that completed them, which is drained once per
+ * game tick. Skills are only processed on ticks where something relevant to them changed.
  * <p>
  * NOTE: the term `hiscore` already exists in RuneLite to indicate a player's specific hiscore page results. This class,
  * and related classes continue to use the term `hiscore` in that way, though references may be made to the
@@ -55,8 +62,28 @@ public class LeaderboardManager {
     @Inject
     private MilestoneLevelsConfig config;
 
-    private static final int MIN_LEADERBOARD_SIZE = 100;
-    private static final int MAX_REQUEST_RETRIES = 3;
+    @Inject
+    private LeaderboardPageStore pageStore;
+
+    // Each skill buffers the milestones the player is predicted to pass within this time at the recent XP rate, or
+    // within two XP drops, whichever is more. Beyond that, the next page is only fetched once the player gets close.
+    private static final int BUFFER_SECONDS = 5 * 60;
+    // While training, at least this many milestones are buffered, so slow training still shows the next few rivals.
+    private static final int MIN_BUFFERED_ENTRIES = 25;
+    // No more than this many milestones are buffered per skill, which bounds memory during fast training.
+    private static final int MAX_BUFFERED_ENTRIES = 500;
+    // A stale page of the next player to pass is fetched again once the player is predicted to pass them within this
+    // time, or within two XP drops, whichever is more.
+    private static final int REVALIDATE_LEAD_SECONDS = 60;
+    // The buffers of all skills together hold at most this many entries, see `enforceEntryBudget`.
+    private static final int ENTRY_BUDGET = 5000;
+    // At most this many pages are requested at once for a single skill, when its buffer is short by several pages.
+    private static final int MAX_PREFETCH_PAGES = 4;
+    // Skills that haven't gained XP for this long stop being tracked until they gain XP again.
+    private static final long DORMANT_MILLIS = 15 * 60 * 1000;
+    // Skills closest to running out of cached milestones are offered to the scheduler first. For skills without recent
+    // XP gains that time is unknown, so they go last, the ones with the fewest cached milestones first.
+    private static final double IDLE_PRIORITY = 1e12;
     // The minimum level required in a skill before leaderboard tracking begins. The lower the player's level, the more
     // densely packed the leaderboards should be. A densely packed leaderboard defeats the purpose of these sorts of
     // milestones, and results in lots of outgoing requests to the hiscore servers. This acts as a first line of defense
@@ -69,22 +96,84 @@ public class LeaderboardManager {
     // Future that is completed after the player's hiscore data is fetched from the hiscore server.
     private Future<HiscoreResult> hiscoreFuture = null;
 
-    // Holds a complete, valid version of the player's hiscore data after it has been fetched from the hiscore server.
-    private HiscoreResult playerHiscore = null;
+    // Completed requests, added from OkHttp threads and drained on the client thread.
+    private final Queue<LeaderboardCompletion> completions = new ConcurrentLinkedQueue<>();
+
+    // Skills that need processing on the next tick, because a request completed, their XP changed, or they are still
+    // waiting for the scheduler to allow a request.
+    private final EnumSet<Skill> dirtySkills = EnumSet.noneOf(Skill.class);
+
+    // The XP of each skill as of its last `StatChanged` event, indexed by skill ordinal, or -1 if none was seen since
+    // the last reset. Boosts fire that event as well, and don't need any processing.
+    private final int[] lastSeenXp = new int[Skill.values().length];
+
+    // The number of buffered entries evicted to stay within `ENTRY_BUDGET`.
+    private int evictedEntries = 0;
+
+    // The number of stale pages that were fetched again.
+    private int revalidatedPages = 0;
+
+    // Skills that are always tracked, or null when the config needs to be parsed again.
+    private EnumSet<Skill> pinnedSkills = null;
+
+    // The name the player hiscore data is being looked up for.
+    private String hiscoreLookupName = null;
 
-    // Tracks retries for fetching player hiscore data.
-    private int hiscoreRetryCount = 0;
+    // Holds the player's rank and level in every skill after their hiscore data has been fetched from the hiscore
+    // server.
+    private PlayerSkillRanks playerRanks = null;
 
-    private final Map<Skill, LeaderboardSkillState> skillStates = new EnumMap<>(Skill.class);
+    // Recent lookups of player hiscore data. Survives `reset()`, so hops don't look up the same player again.
+    private final PlayerHiscoreCache playerHiscoreCache = new PlayerHiscoreCache();
+
+    // Backoff and circuit breaker state for each hiscores endpoint. Survives `reset()`, so hopping during an outage
+    // doesn't restart the retries.
+    private final Map<LeaderboardEndpoint, LeaderboardCircuitBreaker> circuitBreakers = new EnumMap<>(LeaderboardEndpoint.class);
+
+    // The lookup of the `PlayerRankTracker`, with the name and endpoint it's for and where its outcome goes. It belongs
+    // to the tracker, so `reset()` leaves it alone.
+    private Future<HiscoreResult> rankLookup = null;
+    private String rankLookupName = null;
+    private LeaderboardEndpoint rankLookupEndpoint = null;
+    private PlayerRanksCallback rankLookupCallback = null;
+
+    private Map<Skill, LeaderboardSkillState> skillStates = new EnumMap<>(Skill.class);
+
+    // The account and endpoint the current state belongs to, set when entering the active state.
+    private long sessionAccountHash = -1;
+    private LeaderboardEndpoint sessionEndpoint = null;
+
+    // State of recent accounts. Survives `reset()`, so hops and account switches continue where they left off.
+    private final LeaderboardSessionCache sessionCache = new LeaderboardSessionCache();
     private boolean wasEnabled = false;
 
+    // Number of requests that were cancelled before completing, because their results were no longer needed.
+    private int cancelledRequests = 0;
+    // Number of player lookups whose results were dropped before completing. Their HTTP calls still ran to the end.
+    private int abandonedLookups = 0;
+
+    // Pages fetched for any skill. Survives `reset()`, so logging back in after a hop is mostly served from the cache.
+    private final LeaderboardPageCache pageCache = new LeaderboardPageCache();
+
+    // Rate limits leaderboard requests across all skills. Survives `reset()` on purpose.
+    private final LeaderboardRequestScheduler scheduler = new LeaderboardRequestScheduler();
+
+    // Skills that want another leaderboard page this tick, and how urgently, indexed by skill ordinal.
+    private final List<Skill> requestCandidates = new ArrayList<>();
+    private final double[] requestPriorities = new double[Skill.values().length];
+
     LeaderboardManager() {
         reset();
     }
 
     public void process(GameTick event) {
         if (!config.enableLeaderboard()) {
+            if (wasEnabled) {
+                reset();
+            }
             wasEnabled = false;
+            // The rank tracker's lookups complete through the inbox as well.
+            drainCompletions();
             return;
         } else {
             if (!wasEnabled) {
@@ -93,12 +182,15 @@ public class LeaderboardManager {
             wasEnabled = true;
         }
 
+        drainCompletions();
+        pageStore.onTick();
+
         switch (state) {
             case AWAITING_PLAYER_NAME:
                 processAwaitingPlayerName();
                 break;
             case AWAITING_PLAYER_HISCORE:
-                processAwaitingPlayerHiscore();
+                // Waiting for the lookup to complete.
                 break;
             case ACTIVE:
                 processActive();
@@ -119,29 +211,253 @@ public class LeaderboardManager {
      */
     public List<LeaderboardEntry> getMilestoneLeaderboardEntries(Skill skill, int previousXp, int currentXp) {
         if (!config.enableLeaderboard()) {
-            return new ArrayList<LeaderboardEntry>();
+            return Collections.emptyList();
         }
 
         LeaderboardSkillState skillState = skillStates.get(skill);
-        return skillState.validLeaderboardEntries.stream()
-                                                 .filter(entry -> entry.xp > previousXp && entry.xp < currentXp)
-                                                 .distinct()
-                                                 .collect(Collectors.toList());
+        return skillState.validLeaderboardEntries.between(previousXp, currentXp);
+    }
+
+    /**
+     * Receives the outcome of a lookup made with `lookupPlayerRanks`, on the client thread.
+     */
+    public interface PlayerRanksCallback {
+        /**
+         * @param ranks the player's ranks, or null if the lookup failed or the hiscores don't know about the player
+         * @param fetchedMillis when the ranks were fetched, which is before now if they came from the cache
+         * @param error the exception the lookup failed with, or null on success
+         */
+        void onLookup(PlayerSkillRanks ranks, long fetchedMillis, Throwable error);
+    }
+
+    /**
+     * Looks up the ranks of a player for the `PlayerRankTracker`. The lookup shares the player hiscore cache, the
+     * circuit breaker of the endpoint and the inbox with the manager's own lookup, so the two don't look up the same
+     * player twice, and neither keeps going while the endpoint is down. Cached ranks are only used if they were fetched
+     * after `newerThanMillis`, otherwise the callback is called once the lookup completes.
+     *
+     * @param name String
+     * @param endpoint LeaderboardEndpoint
+     * @param newerThanMillis long
+     * @param callback PlayerRanksCallback
+     * @return false if the circuit breaker held the lookup back, or the previous one is still in flight
+     */
+    public boolean lookupPlayerRanks(String name, LeaderboardEndpoint endpoint, long newerThanMillis, PlayerRanksCallback callback) {
+        if (rankLookup != null) {
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        PlayerSkillRanks cachedRanks = playerHiscoreCache.get(name, endpoint, now);
+        long fetchedMillis = playerHiscoreCache.getFetchedMillis(name, endpoint);
+        if (cachedRanks != null && fetchedMillis > newerThanMillis) {
+            callback.onLookup(cachedRanks, fetchedMillis, null);
+            return true;
+        }
+
+        LeaderboardCircuitBreaker breaker = getCircuitBreaker(endpoint);
+        if (!breaker.canRequest(now)) {
+            return false;
+        }
+        breaker.onRequest(now);
+        CompletableFuture<HiscoreResult> lookup = hiscoreClient.lookupAsync(name, HiscoreEndpoint.valueOf(endpoint.name()));
+        rankLookup = lookup;
+        rankLookupName = name;
+        rankLookupEndpoint = endpoint;
+        rankLookupCallback = callback;
+        lookup.whenComplete((result, error) -> completions.add(LeaderboardCompletion.ofPlayer(lookup, result, error)));
+        return true;
     }
 
     /**
-     * Set LeaderboardManager to the state it should be in on initialization.
+     * Drops the callback of the rank tracker's lookup. The lookup still reports to the cache and the circuit breaker
+     * once it completes, and no other one is made until then.
+     */
+    public void cancelPlayerRanksLookup() {
+        rankLookupCallback = null;
+    }
+
+    /**
+     * Marks a skill for processing on the next tick if its XP changed, rather than only its boosted level.
+     *
+     * @param skill Skill
+     * @param xp int
+     */
+    public void onStatChanged(Skill skill, int xp) {
+        if (lastSeenXp[skill.ordinal()] == xp) {
+            return;
+        }
+        lastSeenXp[skill.ordinal()] = xp;
+        dirtySkills.add(skill);
+    }
+
+    /**
+     * Marks all skills for processing on the next tick, as a config change might have enabled some of them.
+     */
+    public void onConfigChanged() {
+        pinnedSkills = null;
+        dirtySkills.addAll(EnumSet.allOf(Skill.class));
+    }
+
+    /**
+     * Cancels all requests and writes the fetched pages to disk, e.g. when the plugin is turned off.
+     */
+    public void shutDown() {
+        reset();
+        pageStore.flush();
+    }
+
+    @VisibleForTesting
+    LeaderboardSkillState getSkillState(Skill skill) {
+        return skillStates.get(skill);
+    }
+
+    /**
+     * Set LeaderboardManager to the state it should be in on initialization. Requests that are still in flight are
+     * cancelled. The state of an active account is saved, so it can be restored when the account logs in again.
      */
     public void reset() {
+        cancelRequests();
+        saveSession();
         state = LeaderboardManagerState.AWAITING_PLAYER_NAME;
+        sessionAccountHash = -1;
+        sessionEndpoint = null;
         hiscoreFuture = null;
-        playerHiscore = null;
-        hiscoreRetryCount = 0;
+        hiscoreLookupName = null;
+        playerRanks = null;
+        scheduler.reset();
+        dirtySkills.clear();
+        Arrays.fill(lastSeenXp, -1);
+        skillStates = new EnumMap<>(Skill.class);
         for (Skill s: Skill.values()) {
             skillStates.put(s, new LeaderboardSkillState());
         }
     }
 
+    /**
+     * Hands the skill states of the active account over to the session cache. Their requests were cancelled, and their
+     * entries are trimmed to the current XP again once restored.
+     */
+    private void saveSession() {
+        if (state != LeaderboardManagerState.ACTIVE || sessionAccountHash == -1) {
+            return;
+        }
+
+        for (LeaderboardSkillState skillState: skillStates.values()) {
+            skillState.pendingPages.clear();
+            skillState.refreshPages.clear();
+            skillState.trimmedToXp = -1;
+        }
+        sessionCache.put(sessionAccountHash, sessionEndpoint,
+            new LeaderboardSessionCache.Session(skillStates, playerRanks, System.currentTimeMillis()));
+    }
+
+    /**
+     * Describes the retry state of every endpoint that has been used, and of the skills that have failed requests.
+     *
+     * @return String
+     */
+    public String getDiagnostics() {
+        StringBuilder builder = new StringBuilder("Leaderboard state: ").append(state)
+            .append(", requests in flight: ").append(scheduler.getInFlight())
+            .append(", cancelled: ").append(cancelledRequests)
+            .append(", abandoned lookups: ").append(abandonedLookups)
+            .append(", revalidated pages: ").append(revalidatedPages)
+            .append("\n  Page cache: ").append(pageCache)
+            .append("\n  HTTP cache: ").append(leaderboardClient.getCacheStats())
+            .append("\n  Memory: ").append(getMemoryStats());
+        for (Map.Entry<LeaderboardEndpoint, LeaderboardCircuitBreaker> entry: circuitBreakers.entrySet()) {
+            LeaderboardCircuitBreaker breaker = entry.getValue();
+            builder.append("\n  ").append(entry.getKey().getName()).append(": ").append(breaker);
+            if (breaker.getState() != LeaderboardCircuitBreaker.State.CLOSED || breaker.getConsecutiveFailures() > 0) {
+                long delay = Math.max(0, breaker.getNextAttemptMillis() - System.currentTimeMillis());
+                builder.append(", next attempt in ").append(delay / 1000).append("s");
+            }
+        }
+        long now = System.currentTimeMillis();
+        StringJoiner tracked = new StringJoiner(", ");
+        for (Skill s: Skill.values()) {
+            if (state == LeaderboardManagerState.ACTIVE && isTracked(s, skillStates.get(s), now)) {
+                tracked.add(s.getName() + " (" + skillStates.get(s).validLeaderboardEntries.size() + " buffered)");
+            }
+        }
+        builder.append("\n  Tracked skills: ").append(tracked.length() == 0 ? "none" : tracked);
+        for (Skill s: Skill.values()) {
+            LeaderboardSkillState skillState = skillStates.get(s);
+            if (skillState.isDisabledFromError || skillState.currentPageRetryCount > 0) {
+                builder.append("\n  ").append(s.getName()).append(": ")
+                    .append(skillState.isDisabledFromError ? "disabled" : skillState.currentPageRetryCount + " retries");
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Describes the buffered entries against the entry budget, and estimates the memory retained by the buffers, the
+     * page cache and the player names they refer to. Pages held by the page store until they are written are shared
+     * with the page cache, unless it evicted them since, so only their number is reported.
+     */
+    private String getMemoryStats() {
+        Set<String> names = Collections.newSetFromMap(new IdentityHashMap<>());
+        int buffered = 0;
+        long indexBytes = 0;
+        for (LeaderboardSkillState skillState: skillStates.values()) {
+            buffered += skillState.validLeaderboardEntries.size();
+            indexBytes += skillState.validLeaderboardEntries.getRetainedBytes(names);
+        }
+        long cacheBytes = pageCache.getRetainedBytes(names);
+        long nameBytes = 0;
+        for (String name: names) {
+            nameBytes += LeaderboardNamePool.getRetainedBytes(name);
+        }
+        return buffered + "/" + ENTRY_BUDGET + " entries buffered, " + evictedEntries + " evicted, "
+            + indexBytes / 1024 + " KB in buffers, " + cacheBytes / 1024 + " KB in page cache, "
+            + pageStore.getUnwrittenPageCount() + " pages waiting to be stored, "
+            + names.size() + " names in " + nameBytes / 1024 + " KB";
+    }
+
+    private LeaderboardEndpoint getEndpoint() {
+        return LeaderboardEndpoint.valueOf(config.chosenLeaderboard().name());
+    }
+
+    /**
+     * Returns the circuit breaker of the currently chosen leaderboard.
+     */
+    private LeaderboardCircuitBreaker getCircuitBreaker() {
+        return getCircuitBreaker(getEndpoint());
+    }
+
+    private LeaderboardCircuitBreaker getCircuitBreaker(LeaderboardEndpoint endpoint) {
+        return circuitBreakers.computeIfAbsent(endpoint, e -> new LeaderboardCircuitBreaker());
+    }
+
+    /**
+     * Cancels the player lookup and all leaderboard requests that haven't completed yet. Only leaderboard requests stop
+     * their HTTP call, the player lookup is made by RuneLite's `HiscoreClient`, which doesn't support that. Its result
+     * is only dropped, so it is counted as abandoned rather than cancelled.
+     * <p>
+     * Completions of cancelled requests are dropped, so a probe among them would never report back to its circuit
+     * breaker. Nothing is in flight afterwards, so the probes of all endpoints are released. The exception is the rank
+     * tracker's lookup, which isn't cancelled and reports to the breaker of its endpoint once it completes.
+     */
+    private void cancelRequests() {
+        if (hiscoreFuture != null && hiscoreFuture.cancel(true)) {
+            abandonedLookups++;
+        }
+        for (LeaderboardSkillState skillState: skillStates.values()) {
+            for (Future<LeaderboardResult> future: skillState.pendingPages.values()) {
+                if (future.cancel(true)) {
+                    cancelledRequests++;
+                }
+            }
+        }
+        for (Map.Entry<LeaderboardEndpoint, LeaderboardCircuitBreaker> entry: circuitBreakers.entrySet()) {
+            if (rankLookup == null || entry.getKey() != rankLookupEndpoint) {
+                entry.getValue().releaseProbe();
+            }
+        }
+    }
+
     private void processAwaitingPlayerName() {
         if (client.getGameState() == GameState.LOGGED_IN && client.getLocalPlayer() != null && client.getLocalPlayer().getName() != null) {
             if (hiscoreFuture != null) {
@@ -149,38 +465,225 @@ public class LeaderboardManager {
                 state = LeaderboardManagerState.UNRECOVERABLE_ERROR;
                 return;
             }
-            hiscoreFuture = hiscoreClient.lookupAsync(client.getLocalPlayer().getName(), HiscoreEndpoint.valueOf(config.chosenLeaderboard().name()));
+
+            String name = client.getLocalPlayer().getName();
+            long now = System.currentTimeMillis();
+            LeaderboardSessionCache.Session session = sessionCache.take(client.getAccountHash(), getEndpoint(), now);
+            if (session != null) {
+                log.debug("Restoring the leaderboard state of the account.");
+                skillStates = session.getSkillStates();
+                playerRanks = session.getPlayerRanks();
+                enterActive();
+                return;
+            }
+
+            PlayerSkillRanks cachedRanks = playerHiscoreCache.get(name, getEndpoint(), now);
+            if (cachedRanks != null) {
+                startActive(cachedRanks);
+                return;
+            }
+
+            LeaderboardCircuitBreaker breaker = getCircuitBreaker();
+            if (!breaker.canRequest(now)) {
+                return;
+            }
+            breaker.onRequest(now);
+            CompletableFuture<HiscoreResult> lookup = hiscoreClient.lookupAsync(name, HiscoreEndpoint.valueOf(config.chosenLeaderboard().name()));
+            hiscoreFuture = lookup;
+            hiscoreLookupName = name;
+            lookup.whenComplete((result, error) -> completions.add(LeaderboardCompletion.ofPlayer(lookup, result, error)));
             state = LeaderboardManagerState.AWAITING_PLAYER_HISCORE;
         }
     }
 
-    private void processAwaitingPlayerHiscore() {
-        if (hiscoreFuture == null) {
-            // This is effectively an assert. Reaching this point indicates a programming error.
-            log.error("Missing future when waiting for player hiscore data.");
+    /**
+     * Handles all requests that completed since the last tick, and the stored pages that were read. Completions of
+     * requests that are no longer tracked are dropped.
+     */
+    private void drainCompletions() {
+        LeaderboardCompletion completion;
+        while ((completion = completions.poll()) != null) {
+            if (completion.storedPages != null) {
+                pageStore.addTo(pageCache, completion.endpoint, completion.skill, completion.storedPages);
+                dirtySkills.add(completion.skill);
+            } else if (completion.skill == null) {
+                if (completion.request == hiscoreFuture) {
+                    hiscoreFuture = null;
+                    handlePlayerHiscore(completion);
+                } else if (completion.request == rankLookup) {
+                    rankLookup = null;
+                    handleRankLookup(completion);
+                }
+            } else {
+                LeaderboardSkillState skillState = skillStates.get(completion.skill);
+                if (completion.request == skillState.pendingPages.get(completion.page)) {
+                    skillState.pendingPages.remove(completion.page);
+                    scheduler.release();
+                    dirtySkills.add(completion.skill);
+                    handleLeaderboardPage(completion.skill, skillState, completion);
+                }
+            }
+        }
+    }
+
+    private void handlePlayerHiscore(LeaderboardCompletion completion) {
+        if (completion.error != null) {
+            // Go back to waiting for the player name, which issues the lookup again once the backoff allows it.
+            LeaderboardCircuitBreaker breaker = getCircuitBreaker();
+            breaker.onFailure(System.currentTimeMillis());
+            log.warn("Encountered an exception when trying to fetch player specific hiscore data. Retrying, endpoint is {}.", breaker, completion.error);
+            state = LeaderboardManagerState.AWAITING_PLAYER_NAME;
+            return;
+        }
+
+        getCircuitBreaker().onSuccess();
+        if (completion.hiscoreResult == null) {
+            // The hiscores don't know about the player, e.g. because their account is too new.
+            log.warn("No hiscore data found for the player. Stopping.");
             state = LeaderboardManagerState.UNRECOVERABLE_ERROR;
             return;
         }
 
-        if (hiscoreFuture.isDone()) {
-            try {
-                playerHiscore = hiscoreFuture.get();
-                ingestPlayerHiscoreData();
-                state = LeaderboardManagerState.ACTIVE;
-                hiscoreFuture = null;
-            } catch (ExecutionException e) {
-                log.warn("Encountered an exception when trying to fetch player specific hiscore data.", e);
-                if (hiscoreRetryCount < MAX_REQUEST_RETRIES) {
-                    hiscoreFuture = hiscoreClient.lookupAsync(client.getLocalPlayer().getName(), HiscoreEndpoint.valueOf(config.chosenLeaderboard().name()));
-                    hiscoreRetryCount++;
-                } else {
-                    log.warn("Reached max retries when fetching player specific hiscore data. Stopping.");
-                    state = LeaderboardManagerState.UNRECOVERABLE_ERROR;
-                }
-            } catch (InterruptedException e) {
-                log.warn("Attempt to fetch player specific hiscore data was interrupted. Stopping.", e);
-                state = LeaderboardManagerState.UNRECOVERABLE_ERROR;
+        PlayerSkillRanks ranks = new PlayerSkillRanks(completion.hiscoreResult);
+        playerHiscoreCache.put(hiscoreLookupName, getEndpoint(), ranks, System.currentTimeMillis());
+        startActive(ranks);
+    }
+
+    private void handleRankLookup(LeaderboardCompletion completion) {
+        PlayerRanksCallback callback = rankLookupCallback;
+        rankLookupCallback = null;
+        long now = System.currentTimeMillis();
+        LeaderboardCircuitBreaker breaker = getCircuitBreaker(rankLookupEndpoint);
+        if (completion.error != null) {
+            breaker.onFailure(now);
+            if (callback != null) {
+                callback.onLookup(null, now, completion.error);
             }
+            return;
+        }
+
+        breaker.onSuccess();
+        PlayerSkillRanks ranks = null;
+        if (completion.hiscoreResult != null) {
+            ranks = new PlayerSkillRanks(completion.hiscoreResult);
+            playerHiscoreCache.put(rankLookupName, rankLookupEndpoint, ranks, now);
+        }
+        if (callback != null) {
+            callback.onLookup(ranks, now, null);
+        }
+    }
+
+    /**
+     * Enters the active state, starting from the player's ranks.
+     */
+    private void startActive(PlayerSkillRanks ranks) {
+        playerRanks = ranks;
+        ingestPlayerHiscoreData();
+        enterActive();
+    }
+
+    private void enterActive() {
+        state = LeaderboardManagerState.ACTIVE;
+        sessionAccountHash = client.getAccountHash();
+        sessionEndpoint = getEndpoint();
+        dirtySkills.addAll(EnumSet.allOf(Skill.class));
+    }
+
+    /**
+     * Caches a fetched leaderboard page, or handles the failure to fetch it. Pages of a prefetch window can complete in
+     * any order, so they are merged into the skill's milestones by `processSkill`, which takes them from the cache in
+     * page order.
+     */
+    private void handleLeaderboardPage(Skill skill, LeaderboardSkillState skillState, LeaderboardCompletion completion) {
+        boolean refresh = skillState.refreshPages.remove(completion.page);
+        if (completion.error != null) {
+            // Error handling has lots of failure cases. We only want to retry if there was some sort of network issue.
+            Throwable cause = completion.error;
+            if (cause instanceof ParseException) {
+                // The endpoint did respond, so this says nothing about an outage either way.
+                getCircuitBreaker().releaseProbe();
+                log.warn("Failed to parse fetched hiscore data for skill: {}. Disabling future lookups for that skill.", skill, cause);
+                skillState.isDisabledFromError = true;
+            } else if (cause instanceof IOException) {
+                // Network issues don't disable the skill. The retry is issued once both the circuit breaker and the
+                // scheduler allow it.
+                LeaderboardCircuitBreaker breaker = getCircuitBreaker();
+                breaker.onFailure(System.currentTimeMillis());
+                skillState.currentPageRetryCount++;
+                log.warn("Failed to fetch hiscore data for skill: {} due to possible network issue. Retrying, endpoint is {}.", skill, breaker, cause);
+            } else {
+                getCircuitBreaker().releaseProbe();
+                log.warn("Failed to fetch hiscore data for skill: {}. Cause was unexpected. Disabling future lookups for that skill.", skill, cause);
+                skillState.isDisabledFromError = true;
+            }
+            return;
+        }
+
+        // Success case: we just got a new leaderboard page. Now add that data to `skillState`.
+        skillState.currentPageRetryCount = 0;
+        getCircuitBreaker().onSuccess();
+        long now = System.currentTimeMillis();
+        pageCache.put(getEndpoint(), skill, completion.page, completion.leaderboardResult, now);
+        pageStore.save(getEndpoint(), skill, completion.page, completion.leaderboardResult, now);
+        if (skillState.pageLocator != null) {
+            locatePage(skill, skillState, completion.page, completion.leaderboardResult);
+        } else if (refresh) {
+            refreshLeaderboardPage(skill, skillState, completion.page, completion.leaderboardResult, now);
+        }
+    }
+
+    /**
+     * Narrows down the search for the page of an unranked skill. Once found, regular processing starts from that page,
+     * which is already cached.
+     */
+    private void locatePage(Skill skill, LeaderboardSkillState skillState, int page, LeaderboardResult leaderboardResult) {
+        LeaderboardPageLocator locator = skillState.pageLocator;
+        locator.addPage(page, leaderboardResult.getEntries(), client.getSkillExperience(skill));
+        if (!locator.isDone()) {
+            return;
+        }
+
+        log.debug("Located leaderboard page {} for unranked skill: {} after {} probes.", locator.getTargetPage(), skill, locator.getProbes());
+        skillState.pageLocator = null;
+        // Makes `getPageToRequest` return the located page, see there. Without a page above the player, they are
+        // rank 1 and there is nothing to measure.
+        skillState.nextRankToMeasure = locator.getTargetPage() == 0 ? 0 : locator.getTargetPage() * 25 + 1;
+    }
+
+    /**
+     * Merges a leaderboard page into the skill's milestones, and determines the next rank to measure.
+     */
+    private void addLeaderboardPage(Skill skill, LeaderboardSkillState skillState, int page, LeaderboardResult leaderboardResult, long fetchedMillis) {
+        // The results are ordered high XP to low XP since reading begins at the top of the page. Even though the
+        // hiscores change over time, all results from this page will be a greater than or equal to the highest XP value
+        // from the previous page.
+        //
+        // It's possible that several people have the same XP for the current skill. This is especially probable at low
+        // levels. The merge only keeps the best rank per XP value.
+        //
+        // There might be some duplicate names on this list that increased their rank since last time we checked. The
+        // merge drops older entries of players on the new page where their XP ranges overlap. Outside of that range the
+        // leaderboard is only an approximation of its current state, and duplicates are allowed.
+        if (leaderboardResult.getEntries().isEmpty()) {
+            // An empty page means there is nothing left to measure above the player.
+            log.debug("Received an empty leaderboard page for skill: {}. Stopping lookups.", skill);
+            skillState.nextRankToMeasure = 0;
+            return;
+        }
+
+        LeaderboardIndex entries = skillState.validLeaderboardEntries;
+        entries.addPage(leaderboardResult.getEntries());
+        skillState.pageFetchedMillis.put(page, fetchedMillis);
+        skillState.trimmedToXp = -1;
+
+        // XP is in increasing order, meaning the final element is the lowest rank numerically.
+        int last = entries.size() - 1;
+        skillState.nextRankToMeasure = entries.getRank(last) - 1;
+
+        // There can be lots of people with 200m experience. Short circuit this and skip straight to rank 1 to prevent
+        // tons of pointless queries.
+        if (skillState.nextRankToMeasure > 1 && entries.getXp(last) == 200_000_000) {
+            skillState.nextRankToMeasure = 1;
         }
     }
 
@@ -190,137 +693,319 @@ public class LeaderboardManager {
      */
     private void ingestPlayerHiscoreData() {
         for (Skill s: Skill.values()) {
-            skillStates.get(s).nextRankToMeasure = playerHiscore.getSkill(HiscoreSkill.valueOf(s.name())).getRank() - 1;
+            LeaderboardSkillState skillState = skillStates.get(s);
+            int rank = playerRanks.getRank(s);
+            if (rank < 1) {
+                skillState.pageLocator = new LeaderboardPageLocator();
+            } else {
+                skillState.nextRankToMeasure = rank - 1;
+            }
         }
     }
 
     /**
-     * Steady state processing that happens every game tick. Loop over all skills, and ensure that for all the tracked
-     * skills, the list of XP milestones is growing until it reaches the adequate length.
+     * Returns the level the player has to reach before tracking starts. Unranked skills have no level on the hiscores,
+     * so the level from the client is used instead.
+     */
+    private int getTrackedLevel(Skill skill) {
+        return playerRanks.getRank(skill) < 1 ? client.getRealSkillLevel(skill) : playerRanks.getLevel(skill);
+    }
+
+    /**
+     * Steady state processing that happens every game tick. Loop over the skills that changed since the last tick, and
+     * ensure that for all the tracked skills, the list of XP milestones is growing until it reaches the adequate length.
+     * <p>
+     * Skills don't issue requests themselves. Every skill that needs more data becomes a candidate, and candidates are
+     * offered to the scheduler from most to least urgent until it runs out of tokens or concurrency. A candidate may
+     * request several pages at once, see `getPrefetchWindow`.
      */
     private void processActive() {
-        for (Skill s: Skill.values()) {
-            if (Util.skillEnabledInConfig(config, s)) {
-                processSkill(s);
+        long now = System.currentTimeMillis();
+        scheduler.refill(now, config.leaderboardRequestsPerMinute());
+        if (dirtySkills.isEmpty()) {
+            return;
+        }
+
+        requestCandidates.clear();
+        for (Skill s: dirtySkills) {
+            if (Util.skillEnabledInConfig(config, s) && processSkill(s, now)) {
+                requestPriorities[s.ordinal()] = getRequestPriority(s, now);
+                requestCandidates.add(s);
             }
         }
+        dirtySkills.clear();
+        enforceEntryBudget();
+
+        if (requestCandidates.isEmpty()) {
+            return;
+        }
+
+        LeaderboardCircuitBreaker breaker = getCircuitBreaker();
+        requestCandidates.sort(Comparator.comparingDouble(s -> requestPriorities[s.ordinal()]));
+        for (Skill s: requestCandidates) {
+            if (!requestLeaderboardPages(s, breaker, now)) {
+                // Candidates that didn't get all their requests are tried again next tick.
+                dirtySkills.add(s);
+            }
+        }
+    }
+
+    /**
+     * Estimates the number of seconds until the player passes every cached milestone of a skill, at the recent XP rate.
+     * Lower is more urgent.
+     */
+    private double getRequestPriority(Skill skill, long now) {
+        LeaderboardSkillState skillState = skillStates.get(skill);
+        LeaderboardIndex entries = skillState.validLeaderboardEntries;
+        double xpPerSecond = skillState.xpRate.getXpPerSecond(now);
+        if (xpPerSecond <= 0) {
+            return IDLE_PRIORITY + entries.size();
+        }
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        return (entries.getXp(entries.size() - 1) - client.getSkillExperience(skill)) / xpPerSecond;
     }
 
-    private void processSkill(Skill skill) {
+    /**
+     * Trims the passed milestones of a skill.
+     *
+     * @return boolean whether the skill needs another leaderboard page.
+     */
+    private boolean processSkill(Skill skill, long now) {
         LeaderboardSkillState skillState = skillStates.get(skill);
         if (skillState.isDisabledFromError ||
-            skillState.nextRankToMeasure < 1 ||
-            playerHiscore.getSkill(HiscoreSkill.valueOf(skill.name())).getLevel() < MIN_REQUIRED_LEVEL_FOR_TRACKING) {
-            return;
+            (skillState.nextRankToMeasure < 1 && skillState.pageLocator == null) ||
+            getTrackedLevel(skill) < MIN_REQUIRED_LEVEL_FOR_TRACKING) {
+            return false;
         }
 
-        // There might already be an outgoing request for more leaderboard data. Nothing can be done until this is
-        // future is completed.
-        if (skillState.leaderboardFuture != null) {
-            if (!skillState.leaderboardFuture.isDone()) {
-                return;
-            }
+        // Locating the page of an unranked skill needs one probe at a time. The skill is processed again once the
+        // outgoing probe completes.
+        if (skillState.pageLocator != null && !skillState.pendingPages.isEmpty()) {
+            return false;
+        }
 
-            try {
-                // Success case: we just got a new leaderboard page. Now add that data to `skillState`.
-                LeaderboardResult leaderboardResult = skillState.leaderboardFuture.get();
-                skillState.leaderboardFuture = null;
-                skillState.currentPageRetryCount = 0;
-
-                // The results are ordered high XP to low XP since reading begins at the top of the page. Even though
-                // the hiscores change over time, all results from this page will be a greater than or equal to the
-                // highest XP value from the previous page.
-                //
-                // It's possible that several people have the same XP for the current skill. This is especially probable
-                // at low
-                //
-                // There might be some duplicate names on this list that increased their rank since last time we
-                // checked. It's hard to say how this ought to be handled. The leaderboard is constantly changing and
-                // this plugin is using an approximation of the current leaderboar state. For now, duplicates will
-                // be allowed.
-                ArrayList<LeaderboardEntry> resultEntries = new ArrayList<>(leaderboardResult.getEntries());
-                Collections.reverse(resultEntries);
-
-                skillState.validLeaderboardEntries.addAll(resultEntries);
-
-                // De-dupe XP values, only keeping the best (lowest numerical) rank.
-                // TODO: Maybe revisit. This is O(n^2) and it doesn't need to be. Shouldn't matter for small lists.
-                for (int i = 0; i < skillState.validLeaderboardEntries.size()-1; i++) {
-                    if (skillState.validLeaderboardEntries.get(i).xp == skillState.validLeaderboardEntries.get(i+1).xp) {
-                        skillState.validLeaderboardEntries.remove(i);
-                        i--;
-                    }
-                }
+        int currentXp = client.getSkillExperience(skill);
+        skillState.xpRate.update(currentXp, now);
+        if (!isTracked(skill, skillState, now)) {
+            return false;
+        }
 
-                // Rank is in decreasing order, meaning the final element is the lowest rank numerically.
-                skillState.nextRankToMeasure =
-                        skillState.validLeaderboardEntries.get(skillState.validLeaderboardEntries.size()-1).rank - 1;
+        // Pages stored by an earlier session are read in the background first, so they don't have to be requested. The
+        // skill is processed again once they are in the cache.
+        LeaderboardEndpoint endpoint = getEndpoint();
+        if (!pageStore.isLoaded(endpoint, skill)) {
+            pageStore.load(endpoint, skill, now, pages -> completions.add(LeaderboardCompletion.ofStoredPages(endpoint, skill, pages)));
+            return false;
+        }
 
-                // There can be lots of people with 200m experience. Short circuit this and skip straight to rank 1 to
-                // prevent tons of pointless queries.
-                if (skillState.nextRankToMeasure > 1 &&
-                    skillState.validLeaderboardEntries.get(skillState.validLeaderboardEntries.size()-1).xp == 200_000_000) {
-                    skillState.nextRankToMeasure = 1;
-                }
-            } catch (ExecutionException e) {
-                // Error handling has lots of failure cases. We only want to retry if there was some sort of network
-                // issue, which would manifest as an IOException wrapped with an ExecutionException from the future.
-                Throwable cause = e.getCause();
-                if (cause instanceof ParseException) {
-                    log.warn("Failed to parse fetched hiscore data for skill: {}. Disabling future lookups for that skill.", skill, cause);
-                    skillState.isDisabledFromError = true;
-                } else if (cause instanceof IOException && skillState.currentPageRetryCount < MAX_REQUEST_RETRIES) {
-                    log.warn("Failed to fetch hiscore data for skill: {} due to possible network issue. Retrying.", skill, cause);
-                        skillState.currentPageRetryCount++;
-                        skillState.leaderboardFuture = null;
-                        requestMoreLeaderboardDataForSkill(skill);
-                } else if (cause instanceof IOException) {
-                    log.warn("Failed to fetch hiscore data for skill: {} due to possible network issue. Reached max retries.", skill, cause);
-                        skillState.isDisabledFromError = true;
+        // Unranked skills first locate the page the player's XP falls on. Probes that are cached don't need a request.
+        while (skillState.pageLocator != null) {
+            int page = skillState.pageLocator.getNextPage(currentXp);
+            LeaderboardResult cached = pageCache.get(endpoint, skill, page, now);
+            if (cached == null) {
+                return true;
+            }
+            locatePage(skill, skillState, page, cached);
+        }
+
+        while (true) {
+            // Trim the list of leaderboard entries to remove all XP milestones lower than the player's current XP value
+            // for this skill. This only advances the head of the index, and only when the XP has changed.
+            if (currentXp != skillState.trimmedToXp) {
+                LeaderboardIndex entries = skillState.validLeaderboardEntries;
+                entries.removeUpTo(currentXp);
+                skillState.trimmedToXp = currentXp;
+                if (entries.isEmpty()) {
+                    skillState.pageFetchedMillis.clear();
                 } else {
-                    log.warn("Failed to fetch hiscore data for skill: {}. Cause was unexpected. Disabling future lookups for that skill.", skill, cause);
-                    skillState.isDisabledFromError = true;
+                    skillState.pageFetchedMillis.tailMap(getPage(entries.getRank(0)), false).clear();
                 }
+            }
 
-            } catch (InterruptedException e) {
-                log.warn("Attempt to fetch data for skill: {} was interrupted. Disabling future lookups for that skill.", skill, e);
-                skillState.isDisabledFromError = true;
+            if (!isBufferShort(skillState, currentXp, now)) {
+                return getStalePage(skillState, currentXp, now) != 0;
             }
 
+            // Pages that are still cached, e.g. from before a hop or a client restart, are merged right away without
+            // making a request.
+            // Every merged page lowers `nextRankToMeasure` and extends the buffer, so this ends once a page isn't
+            // cached or the buffer is long enough. Pages of the prefetch window that completed ahead of the page below
+            // them wait in the cache until that one is merged.
+            int page = getPageToRequest(skill, skillState);
+            LeaderboardResult cached = pageCache.get(endpoint, skill, page, now);
+            if (cached == null) {
+                return true;
+            }
+            addLeaderboardPage(skill, skillState, page, cached, pageCache.getFetchedMillis(endpoint, skill, page));
         }
-        if (skillState.leaderboardFuture != null) {
+    }
+
+    /**
+     * Returns whether a skill is being trained, or pinned in the config. Other skills don't request leaderboard pages.
+     */
+    private boolean isTracked(Skill skill, LeaderboardSkillState skillState, long now) {
+        return skillState.xpRate.hasGainedWithin(DORMANT_MILLIS, now) || getPinnedSkills().contains(skill);
+    }
+
+    /**
+     * Returns the skills that are always tracked, parsed from the config once after every config change.
+     */
+    private Set<Skill> getPinnedSkills() {
+        if (pinnedSkills == null) {
+            pinnedSkills = EnumSet.noneOf(Skill.class);
+            for (String name: Text.fromCSV(config.leaderboardPinnedSkills())) {
+                for (Skill s: Skill.values()) {
+                    if (s.getName().equalsIgnoreCase(name)) {
+                        pinnedSkills.add(s);
+                    }
+                }
+            }
+        }
+        return pinnedSkills;
+    }
+
+    /**
+     * Decides whether the buffered milestones of a skill should be extended with the next page. The buffer is sized from
+     * the XP rate: it should reach the XP the player is predicted to have after `BUFFER_SECONDS`, bounded by
+     * `MIN_BUFFERED_ENTRIES` while training and `MAX_BUFFERED_ENTRIES`. Idle skills don't extend their buffer until
+     * the player is about to pass the last buffered milestone. Once all buffered milestones are passed, the next page
+     * is needed right away.
+     */
+    private boolean isBufferShort(LeaderboardSkillState skillState, int currentXp, long now) {
+        LeaderboardIndex entries = skillState.validLeaderboardEntries;
+        XpRate xpRate = skillState.xpRate;
+        if (skillState.nextRankToMeasure <= 1 || entries.size() >= MAX_BUFFERED_ENTRIES) {
+            return false;
+        }
+        if (entries.size() < MIN_BUFFERED_ENTRIES && !xpRate.isIdle(now)) {
+            return true;
+        }
+
+        if (entries.isEmpty()) {
+            return true;
+        }
+
+        return entries.getXp(entries.size() - 1) - currentXp <= getBufferXp(xpRate, now);
+    }
+
+    /**
+     * Keeps the buffered entries of all skills within `ENTRY_BUDGET`. Entries are evicted from the least recently
+     * trained skills first, and within a skill from the highest XP down, as those are the milestones the player is
+     * furthest from. Every skill keeps at least `MIN_BUFFERED_ENTRIES`. Evicted ranks are measured again if the skill
+     * needs them later.
+     */
+    private void enforceEntryBudget() {
+        int total = 0;
+        for (LeaderboardSkillState skillState: skillStates.values()) {
+            total += skillState.validLeaderboardEntries.size();
+        }
+        if (total <= ENTRY_BUDGET) {
             return;
         }
-        // This point should now only be reached if there is no leaderboardFuture (it's possible that there was one when
-        // this function was initially called).
 
-        // Trim the list of leaderboard entries to remove all XP milestones lower than the player's current XP value for
-        // this skill.
-        skillState.validLeaderboardEntries =
-                skillState.validLeaderboardEntries.stream()
-                                                  .filter(entry -> entry.xp > client.getSkillExperience(skill))
-                                                  .distinct()
-                                                  .collect(Collectors.toList());
+        List<Skill> skills = new ArrayList<>(skillStates.keySet());
+        skills.sort(Comparator.comparingLong(s -> skillStates.get(s).xpRate.getLastGainMillis()));
+        for (Skill s: skills) {
+            LeaderboardSkillState skillState = skillStates.get(s);
+            LeaderboardIndex entries = skillState.validLeaderboardEntries;
+            int keep = Math.max(MIN_BUFFERED_ENTRIES, entries.size() - (total - ENTRY_BUDGET));
+            if (keep >= entries.size()) {
+                continue;
+            }
 
-        if (skillState.validLeaderboardEntries.size() < MIN_LEADERBOARD_SIZE) {
-            requestMoreLeaderboardDataForSkill(skill);
+            log.debug("Evicting {} leaderboard entries of skill: {} to stay within the entry budget.", entries.size() - keep, s);
+            total -= entries.size() - keep;
+            evictedEntries += entries.size() - keep;
+            entries.keepLowest(keep);
+            skillState.nextRankToMeasure = entries.getRank(keep - 1) - 1;
+            skillState.pageFetchedMillis.headMap(getPage(entries.getRank(keep - 1))).clear();
+            if (total <= ENTRY_BUDGET) {
+                return;
+            }
         }
     }
 
     /**
-     * Helper function that initiates a request for the next leaderboard page for a skill.
+     * Returns the page of the next player to pass, if it was fetched longer than the configured maximum age ago and the
+     * player is predicted to pass them within `REVALIDATE_LEAD_SECONDS`. Returns 0 otherwise, or if the page is
+     * already being fetched again. Only this page is revalidated, as the other buffered pages are either passed before
+     * they matter, or become the nearest page themselves.
      */
-    private void requestMoreLeaderboardDataForSkill(Skill skill) {
-        LeaderboardSkillState skillState = skillStates.get(skill);
-        if (skillState.leaderboardFuture != null) {
-            log.warn("Attempted to fetch more leaderboard data for skill: {} while a request was already pending. Disabling future lookups.", skill);
-            skillState.isDisabledFromError = true;
+    private int getStalePage(LeaderboardSkillState skillState, int currentXp, long now) {
+        LeaderboardIndex entries = skillState.validLeaderboardEntries;
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        // Merges only ever push ranks down, so the entry was fetched on this page or on one with a lower number.
+        int page = getPage(entries.getRank(0));
+        Map.Entry<Integer, Long> fetched = skillState.pageFetchedMillis.floorEntry(page);
+        if (fetched == null || now - fetched.getValue() <= TimeUnit.MINUTES.toMillis(config.leaderboardMaxPageAge()) ||
+            skillState.pendingPages.containsKey(page)) {
+            return 0;
+        }
+
+        XpRate xpRate = skillState.xpRate;
+        double leadXp = Math.max(xpRate.getXpPerSecond(now) * REVALIDATE_LEAD_SECONDS, 2.0 * xpRate.getLastGain(now));
+        return entries.getXp(0) - currentXp <= leadXp ? page : 0;
+    }
+
+    /**
+     * Replaces the buffered entries of a stale page with the entries on the page fetched again. The crawl itself is not
+     * affected.
+     */
+    private void refreshLeaderboardPage(Skill skill, LeaderboardSkillState skillState, int page, LeaderboardResult leaderboardResult, long fetchedMillis) {
+        if (leaderboardResult.getEntries().isEmpty()) {
             return;
         }
 
+        log.debug("Revalidated stale leaderboard page {} for skill: {}.", page, skill);
+        revalidatedPages++;
+        skillState.validLeaderboardEntries.replacePage(leaderboardResult.getEntries());
+        skillState.pageFetchedMillis.put(page, fetchedMillis);
+        skillState.trimmedToXp = -1;
+    }
+
+    /**
+     * Returns the XP the buffer of a skill should reach above the player's current XP.
+     */
+    private static double getBufferXp(XpRate xpRate, long now) {
+        return Math.max(xpRate.getXpPerSecond(now) * BUFFER_SECONDS, 2.0 * xpRate.getLastGain(now));
+    }
+
+    /**
+     * Returns how many pages to request at once for a skill. That is a single page, unless the buffer is short by more
+     * than that: it holds fewer than `MIN_BUFFERED_ENTRIES` while training, or the XP it lacks spans more entries than
+     * fit on a page, going by how densely the buffered entries are spread over their XP range.
+     */
+    private int getPrefetchWindow(Skill skill, LeaderboardSkillState skillState, long now) {
+        LeaderboardIndex entries = skillState.validLeaderboardEntries;
+        XpRate xpRate = skillState.xpRate;
+        int missingEntries = xpRate.isIdle(now) ? 0 : MIN_BUFFERED_ENTRIES - entries.size();
+        if (entries.size() >= 2) {
+            int topXp = entries.getXp(entries.size() - 1);
+            double missingXp = client.getSkillExperience(skill) + getBufferXp(xpRate, now) - topXp;
+            double entriesPerXp = (entries.size() - 1) / (double) (topXp - entries.getXp(0));
+            missingEntries = Math.max(missingEntries, (int) Math.ceil(missingXp * entriesPerXp));
+        }
+        int pages = (missingEntries + 24) / 25;
+        return Math.max(1, Math.min(MAX_PREFETCH_PAGES, pages));
+    }
+
+    /**
+     * Returns the leaderboard page that contains the next rank to measure for a skill, or 0 if there is none. While the
+     * page of an unranked skill is being located, this is the page to probe next.
+     */
+    private int getPageToRequest(Skill skill, LeaderboardSkillState skillState) {
+        if (skillState.pageLocator != null) {
+            return skillState.pageLocator.getNextPage(client.getSkillExperience(skill));
+        }
+
         int nextRankToMeasure = skillState.nextRankToMeasure - 1;
         if (nextRankToMeasure <= 0) {
-            return;
+            return 0;
         }
 
         // For example: page 2 contains ranks 26 to 50 inclusive.
@@ -328,10 +1013,59 @@ public class LeaderboardManager {
         //   ((26-1) / 25) + 1 == 2
         //   ((50-1) / 25) + 1 == 2
         //   ((51-1) / 25) + 1 == 3
-        int pageToRequest = ((nextRankToMeasure - 1) / 25) + 1;
+        return ((nextRankToMeasure - 1) / 25) + 1;
+    }
+
+    /**
+     * Requests the stale page of the next player to pass, if any, followed by the pages in the prefetch window of a
+     * skill that are neither pending nor cached, starting with the page the player reaches first. Unranked skills only
+     * request their next probe.
+     *
+     * @return boolean whether every page was requested, false if the scheduler or circuit breaker held some back.
+     */
+    private boolean requestLeaderboardPages(Skill skill, LeaderboardCircuitBreaker breaker, long now) {
+        LeaderboardSkillState skillState = skillStates.get(skill);
+        LeaderboardEndpoint endpoint = getEndpoint();
+        int stalePage = getStalePage(skillState, client.getSkillExperience(skill), now);
+        if (stalePage != 0) {
+            if (!breaker.canRequest(now) || !scheduler.tryAcquire()) {
+                return false;
+            }
+            breaker.onRequest(now);
+            requestLeaderboardPage(skill, skillState, stalePage);
+            skillState.refreshPages.add(stalePage);
+        }
 
-        skillState.leaderboardFuture = leaderboardClient.lookupAsync(
-                skill, pageToRequest, LeaderboardEndpoint.valueOf(config.chosenLeaderboard().name()));
+        int firstPage = getPageToRequest(skill, skillState);
+        int window = skillState.pageLocator != null ? 1 : getPrefetchWindow(skill, skillState, now);
+        for (int page = firstPage; page >= 1 && page > firstPage - window; page--) {
+            if (skillState.pendingPages.containsKey(page) || pageCache.contains(endpoint, skill, page, now)) {
+                continue;
+            }
+            if (!breaker.canRequest(now) || !scheduler.tryAcquire()) {
+                return false;
+            }
+            breaker.onRequest(now);
+            requestLeaderboardPage(skill, skillState, page);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the leaderboard page a rank is on.
+     */
+    private static int getPage(int rank) {
+        return ((rank - 1) / 25) + 1;
+    }
+
+    /**
+     * Helper function that initiates a request for a leaderboard page of a skill. The caller must have acquired a token
+     * from the scheduler for it.
+     */
+    private void requestLeaderboardPage(Skill skill, LeaderboardSkillState skillState, int page) {
+        LeaderboardRequest request = leaderboardClient.lookupAsync(skill, page, getEndpoint());
+        skillState.pendingPages.put(page, request);
+        request.whenComplete((result, error) -> completions.add(LeaderboardCompletion.ofPage(skill, page, request, result, error)));
     }
 
 }
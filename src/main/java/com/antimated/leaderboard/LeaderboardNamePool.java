@@ -0,0 +1,27 @@
+package com.antimated.leaderboard;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * Shared pool of player names on the leaderboards. The same top players show up in many skills and on several
+ * endpoints, so names are deduplicated as soon as a page is parsed or read from disk. The pool only holds weak
+ * references, a name is dropped once no page or index refers to it anymore.
+ */
+public final class LeaderboardNamePool {
+    private static final Interner<String> NAMES = Interners.newWeakInterner();
+
+    private LeaderboardNamePool() {
+    }
+
+    public static String intern(String name) {
+        return NAMES.intern(name);
+    }
+
+    /**
+     * Estimates the memory held by a name in bytes: the String object and its Latin-1 backing array.
+     */
+    static long getRetainedBytes(String name) {
+        return 40 + name.length();
+    }
+}
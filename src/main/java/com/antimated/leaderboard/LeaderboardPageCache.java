@@ -0,0 +1,125 @@
+package com.antimated.leaderboard;
+
+import lombok.Value;
+import net.runelite.api.Skill;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Least recently used cache of parsed leaderboard pages. It's owned by the `LeaderboardManager` rather than a
+ * `LeaderboardSkillState`, so the pages survive a reset, and logging back in after a hop rebuilds the milestone lists
+ * from the cache instead of downloading the same pages again.
+ * <p>
+ * Pages older than `TTL_MILLIS` are treated as misses. The leaderboards around the player change slowly, so a page of
+ * that age is still a good approximation.
+ * <p>
+ * Pages that were stored on disk by `LeaderboardPageStore` are added with the time they were originally fetched, and
+ * the longer maximum age of the store. They save the requests of a crawl after a client restart, and the page of the
+ * next player to pass is fetched again before passing them if it's older than the configured maximum page age.
+ */
+public class LeaderboardPageCache {
+    private static final int MAX_PAGES = 500;
+    static final long TTL_MILLIS = 15 * 60 * 1000;
+    // Rough object sizes on a 64-bit JVM with compressed references, for `getRetainedBytes`.
+    private static final int PAGE_BYTES = 160;
+    private static final int ENTRY_BYTES = 32;
+
+    @Value
+    private static class PageKey {
+        LeaderboardEndpoint endpoint;
+        int tableNumber;
+        int page;
+    }
+
+    @Value
+    private static class CachedPage {
+        LeaderboardResult result;
+        long fetchedMillis;
+        long maxAgeMillis;
+    }
+
+    private final Map<PageKey, CachedPage> pages = new LinkedHashMap<PageKey, CachedPage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PageKey, CachedPage> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+
+    private int hits = 0;
+    private int misses = 0;
+
+    /**
+     * Returns a cached page if it's still fresh, or null otherwise.
+     *
+     * @param endpoint LeaderboardEndpoint
+     * @param skill Skill
+     * @param page int
+     * @param nowMillis long
+     * @return LeaderboardResult
+     */
+    public LeaderboardResult get(LeaderboardEndpoint endpoint, Skill skill, int page, long nowMillis) {
+        PageKey key = new PageKey(endpoint, SkillTable.valueOf(skill.name()).tableNumber, page);
+        CachedPage cached = pages.get(key);
+        if (cached == null || nowMillis - cached.getFetchedMillis() > cached.getMaxAgeMillis()) {
+            if (cached != null) {
+                pages.remove(key);
+            }
+            misses++;
+            return null;
+        }
+        hits++;
+        return cached.getResult();
+    }
+
+    /**
+     * Returns when a cached page was fetched, or -1 if it isn't cached.
+     */
+    public long getFetchedMillis(LeaderboardEndpoint endpoint, Skill skill, int page) {
+        CachedPage cached = pages.get(new PageKey(endpoint, SkillTable.valueOf(skill.name()).tableNumber, page));
+        return cached == null ? -1 : cached.getFetchedMillis();
+    }
+
+    /**
+     * Returns whether a page is cached and still fresh. Unlike `get`, this doesn't count as a hit or miss.
+     */
+    public boolean contains(LeaderboardEndpoint endpoint, Skill skill, int page, long nowMillis) {
+        CachedPage cached = pages.get(new PageKey(endpoint, SkillTable.valueOf(skill.name()).tableNumber, page));
+        return cached != null && nowMillis - cached.getFetchedMillis() <= cached.getMaxAgeMillis();
+    }
+
+    /**
+     * Estimates the memory held by the cached pages in bytes. Names are shared, so they are added to `names` to be
+     * counted once by the caller.
+     */
+    public long getRetainedBytes(Set<String> names) {
+        long bytes = 0;
+        for (CachedPage cached: pages.values()) {
+            List<LeaderboardEntry> entries = cached.getResult().getEntries();
+            // The map entry, key, cached page, result and entry list, plus an object per entry.
+            bytes += PAGE_BYTES + (long) entries.size() * ENTRY_BYTES;
+            for (LeaderboardEntry entry: entries) {
+                names.add(entry.name);
+            }
+        }
+        return bytes;
+    }
+
+    public void put(LeaderboardEndpoint endpoint, Skill skill, int page, LeaderboardResult result, long fetchedMillis) {
+        put(endpoint, skill, page, result, fetchedMillis, TTL_MILLIS);
+    }
+
+    /**
+     * Adds a page that is treated as fresh until it's older than `maxAgeMillis`, rather than `TTL_MILLIS`.
+     */
+    public void put(LeaderboardEndpoint endpoint, Skill skill, int page, LeaderboardResult result, long fetchedMillis, long maxAgeMillis) {
+        pages.put(new PageKey(endpoint, SkillTable.valueOf(skill.name()).tableNumber, page), new CachedPage(result, fetchedMillis, maxAgeMillis));
+    }
+
+    @Override
+    public String toString() {
+        return pages.size() + " pages, " + hits + " hits, " + misses + " misses";
+    }
+}
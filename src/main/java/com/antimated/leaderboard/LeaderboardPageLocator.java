@@ -0,0 +1,98 @@
+package com.antimated.leaderboard;
+
+import net.runelite.api.Experience;
+
+import java.util.List;
+
+/**
+ * Finds the leaderboard page that the player's XP falls on, for skills where the player's hiscore data has no rank.
+ * That happens when the player isn't ranked yet, or only just crossed the ranking threshold.
+ * <p>
+ * The locator keeps two bounds: the last page known to start above the player's XP, and the first page known not to.
+ * Each probe narrows them down. Probes alternate between interpolating the player's XP between the XP values at both
+ * bounds, which is close after a few probes as the leaderboards are locally smooth, and bisecting, which guarantees
+ * the search ends after about twice as many probes as a binary search would take. Pages past the end of the
+ * leaderboard are empty and count as not above the player. They have no XP to interpolate against, so the probe is
+ * extrapolated from the XP the last page above the player spans instead, which is accurate near the end of the
+ * leaderboard where XP values change slowly. A page above the player that already ends at or below the player's XP is
+ * the target page, as the next page can't start above it.
+ */
+public class LeaderboardPageLocator {
+    // The hiscores rank up to 2 million players.
+    static final int MAX_PAGE = 2_000_000 / 25;
+
+    // The last page that starts above the player's XP, with the XP of its final entry. Page 0 stands for "above
+    // everything".
+    private int abovePage = 0;
+    private int aboveXp = Experience.MAX_SKILL_XP;
+    // The XP between the first and final entry of that page, or -1 for page 0.
+    private int aboveSpanXp = -1;
+
+    // The first page that doesn't start above the player's XP, with the XP of its first entry, or -1 if it was empty.
+    private int belowPage = MAX_PAGE + 1;
+    private int belowXp = 0;
+
+    private int probes = 0;
+
+    public boolean isDone() {
+        return belowPage - abovePage <= 1;
+    }
+
+    /**
+     * Returns the last page with entries above the player's XP, or 0 if there is none. Only valid once `isDone()`.
+     *
+     * @return int
+     */
+    public int getTargetPage() {
+        return abovePage;
+    }
+
+    public int getProbes() {
+        return probes;
+    }
+
+    /**
+     * Returns the page to probe next.
+     *
+     * @param xp the player's current XP
+     * @return int
+     */
+    public int getNextPage(int xp) {
+        int page = (abovePage + belowPage) >>> 1;
+        if (probes % 2 == 0 && aboveXp > xp) {
+            if (belowXp >= 0 && xp > belowXp) {
+                page = abovePage + (int) ((long) (belowPage - abovePage) * (aboveXp - xp) / (aboveXp - belowXp));
+            } else if (belowXp < 0 && aboveSpanXp > 0) {
+                page = (int) Math.min(belowPage, abovePage + ((long) aboveXp - xp + aboveSpanXp - 1) / aboveSpanXp);
+            }
+        }
+        return Math.max(abovePage + 1, Math.min(belowPage - 1, page));
+    }
+
+    /**
+     * Narrows down the bounds with a fetched page.
+     *
+     * @param page int
+     * @param entries the entries on the page, ordered by rank
+     * @param xp the player's current XP
+     */
+    public void addPage(int page, List<LeaderboardEntry> entries, int xp) {
+        probes++;
+        if (page <= abovePage || page >= belowPage) {
+            return;
+        }
+
+        if (!entries.isEmpty() && entries.get(0).xp > xp) {
+            abovePage = page;
+            aboveXp = entries.get(entries.size() - 1).xp;
+            aboveSpanXp = entries.get(0).xp - aboveXp;
+            if (aboveXp <= xp) {
+                // The next page can't start above the player's XP when this one already ends at or below it
+                belowPage = Math.min(belowPage, page + 1);
+            }
+        } else {
+            belowPage = page;
+            belowXp = entries.isEmpty() ? -1 : entries.get(0).xp;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.antimated.leaderboard;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+import net.runelite.client.RuneLite;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Persists fetched leaderboard pages on disk, so a client restart doesn't start the leaderboard crawl from zero. There
+ * is one file per endpoint and skill table, which is read in the background the first time the skill is processed after
+ * starting the client. Fetched pages are held until the next flush, which merges them into the files in the background.
+ * Both happen on the executor, which runs its tasks in order, so a file is always read before it is first rewritten.
+ * <p>
+ * The pages themselves live in `LeaderboardPageCache`, the store only keeps the pages that haven't been written yet.
+ * Expired pages are dropped from a file whenever it is read or written.
+ * <p>
+ * A file starts with a string table holding every player name once, followed by the pages. Within a page, entries are
+ * ordered by rank. Only the first entry stores its rank and XP, the others store the difference to the entry before it,
+ * and every number is written as a variable length int.
+ * <p>
+ * Stored pages expire after `MAX_AGE_MILLIS`, much later than the pages in `LeaderboardPageCache`, so a restart later
+ * in the day still finds them. They are added to the cache with that age as well. Their accuracy is restored by the
+ * crawl, which fetches the page of the next player to pass again before passing them once it's older than the
+ * configured maximum page age.
+ */
+@Slf4j
+@Singleton
+public class LeaderboardPageStore {
+    private static final File STORE_DIR = new File(new File(RuneLite.RUNELITE_DIR, "milestone-levels"), "leaderboards");
+    private static final int MAGIC = 0x4D4C4C42; // "MLLB"
+    private static final int VERSION = 1;
+    // Writes are throttled while crawling, the files only need to be reasonably up-to-date when the client closes.
+    private static final int MIN_TICKS_BETWEEN_WRITES = 50;
+    private static final long MAX_AGE_MILLIS = 12 * 60 * 60 * 1000;
+
+    @Inject
+    private ScheduledExecutorService executor;
+
+    static class StoredPage {
+        final LeaderboardResult result;
+        final long fetchedMillis;
+
+        StoredPage(LeaderboardResult result, long fetchedMillis) {
+            this.result = result;
+            this.fetchedMillis = fetchedMillis;
+        }
+    }
+
+    // Fetched pages that haven't been written yet by page number, keyed by file name.
+    private final Map<String, TreeMap<Integer, StoredPage>> unwrittenPages = new HashMap<>();
+    // Files that are being read or were read this session, mapped to whether their pages were added to the page cache.
+    private final Map<String, Boolean> loadedFiles = new HashMap<>();
+    private int ticksSinceWrite = 0;
+
+    /**
+     * Returns whether the stored pages of a skill were added to the page cache, so requests for them can be avoided.
+     */
+    public boolean isLoaded(LeaderboardEndpoint endpoint, Skill skill) {
+        return loadedFiles.getOrDefault(getFileName(endpoint, skill), false);
+    }
+
+    /**
+     * Reads the stored pages of a skill on the executor, the first time this is called for the skill and endpoint.
+     * `callback` receives them on the executor thread, and should hand them to the client thread to be added with
+     * `addTo`.
+     *
+     * @param endpoint LeaderboardEndpoint
+     * @param skill Skill
+     * @param nowMillis long
+     * @param callback Consumer<Map<Integer, StoredPage>>
+     */
+    public void load(LeaderboardEndpoint endpoint, Skill skill, long nowMillis, Consumer<Map<Integer, StoredPage>> callback) {
+        String name = getFileName(endpoint, skill);
+        if (loadedFiles.putIfAbsent(name, false) != null) {
+            return;
+        }
+        executor.execute(() -> {
+            File file = new File(STORE_DIR, name);
+            TreeMap<Integer, StoredPage> pages = read(file);
+            if (removeExpired(pages, nowMillis)) {
+                write(file, pages);
+            }
+            callback.accept(pages);
+        });
+    }
+
+    /**
+     * Adds the pages read by `load` to `cache`. Pages that were fetched while the file was being read are newer, and
+     * are kept.
+     *
+     * @param cache LeaderboardPageCache
+     * @param endpoint LeaderboardEndpoint
+     * @param skill Skill
+     * @param pages Map<Integer, StoredPage>
+     */
+    public void addTo(LeaderboardPageCache cache, LeaderboardEndpoint endpoint, Skill skill, Map<Integer, StoredPage> pages) {
+        loadedFiles.put(getFileName(endpoint, skill), true);
+        for (Map.Entry<Integer, StoredPage> entry: pages.entrySet()) {
+            StoredPage page = entry.getValue();
+            if (cache.getFetchedMillis(endpoint, skill, entry.getKey()) < page.fetchedMillis) {
+                cache.put(endpoint, skill, entry.getKey(), page.result, page.fetchedMillis, MAX_AGE_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Adds a fetched page, which is written with the next flush.
+     */
+    public void save(LeaderboardEndpoint endpoint, Skill skill, int page, LeaderboardResult result, long fetchedMillis) {
+        unwrittenPages.computeIfAbsent(getFileName(endpoint, skill), n -> new TreeMap<>()).put(page, new StoredPage(result, fetchedMillis));
+    }
+
+    /**
+     * Returns the number of fetched pages that are held until the next flush.
+     */
+    public int getUnwrittenPageCount() {
+        int count = 0;
+        for (TreeMap<Integer, StoredPage> pages: unwrittenPages.values()) {
+            count += pages.size();
+        }
+        return count;
+    }
+
+    /**
+     * Writes the changed files, at most once every `MIN_TICKS_BETWEEN_WRITES` ticks.
+     */
+    public void onTick() {
+        if (++ticksSinceWrite >= MIN_TICKS_BETWEEN_WRITES) {
+            flush();
+        }
+    }
+
+    /**
+     * Merges the fetched pages into their files in the background, and lets go of them. Expired pages are dropped.
+     */
+    public void flush() {
+        ticksSinceWrite = 0;
+        if (unwrittenPages.isEmpty()) {
+            return;
+        }
+
+        Map<String, TreeMap<Integer, StoredPage>> toWrite = new HashMap<>(unwrittenPages);
+        unwrittenPages.clear();
+        long now = System.currentTimeMillis();
+        executor.execute(() -> toWrite.forEach((name, pages) -> {
+            File file = new File(STORE_DIR, name);
+            TreeMap<Integer, StoredPage> merged = read(file);
+            merged.putAll(pages);
+            removeExpired(merged, now);
+            write(file, merged);
+        }));
+    }
+
+    /**
+     * Removes the pages that expired by `nowMillis`.
+     *
+     * @return whether any page was removed.
+     */
+    private static boolean removeExpired(TreeMap<Integer, StoredPage> pages, long nowMillis) {
+        return pages.values().removeIf(page -> nowMillis - page.fetchedMillis > MAX_AGE_MILLIS);
+    }
+
+    private static TreeMap<Integer, StoredPage> read(File file) {
+        TreeMap<Integer, StoredPage> pages = new TreeMap<>();
+        if (!file.exists()) {
+            return pages;
+        }
+
+        try {
+            // The files are only a few KB, so the whole file is decoded from a single buffer.
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.debug("Ignoring leaderboard page file with unknown format: {}", file);
+                return pages;
+            }
+
+            String[] names = new String[readVarInt(buffer)];
+            for (int i = 0; i < names.length; i++) {
+                byte[] bytes = new byte[readVarInt(buffer)];
+                buffer.get(bytes);
+                names[i] = LeaderboardNamePool.intern(new String(bytes, StandardCharsets.UTF_8));
+            }
+
+            int pageCount = readVarInt(buffer);
+            for (int p = 0; p < pageCount; p++) {
+                int page = readVarInt(buffer);
+                long fetchedMillis = buffer.getLong();
+                int entryCount = readVarInt(buffer);
+
+                List<LeaderboardEntry> entries = new ArrayList<>(entryCount);
+                int rank = 0;
+                int xp = 0;
+                for (int i = 0; i < entryCount; i++) {
+                    String name = names[readVarInt(buffer)];
+                    int level = readVarInt(buffer);
+                    if (i == 0) {
+                        rank = readVarInt(buffer);
+                        xp = readVarInt(buffer);
+                    } else {
+                        rank += readVarInt(buffer);
+                        xp -= readVarInt(buffer);
+                    }
+                    entries.add(new LeaderboardEntry(name, rank, level, xp));
+                }
+                pages.put(page, new StoredPage(new LeaderboardResult(entries), fetchedMillis));
+            }
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            log.warn("Unable to read leaderboard page file {}", file, e);
+            pages.clear();
+        }
+        return pages;
+    }
+
+    private static void write(File file, TreeMap<Integer, StoredPage> pages) {
+        if (pages.isEmpty()) {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                log.warn("Unable to delete leaderboard page file {}", file, e);
+            }
+            return;
+        }
+
+        File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+
+        Map<String, Integer> nameIndexes = new LinkedHashMap<>();
+        for (StoredPage page: pages.values()) {
+            for (LeaderboardEntry entry: page.result.getEntries()) {
+                nameIndexes.putIfAbsent(entry.name, nameIndexes.size());
+            }
+        }
+
+        try {
+            Files.createDirectories(STORE_DIR.toPath());
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+
+                writeVarInt(out, nameIndexes.size());
+                for (String name: nameIndexes.keySet()) {
+                    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                    writeVarInt(out, bytes.length);
+                    out.write(bytes);
+                }
+
+                writeVarInt(out, pages.size());
+                for (Map.Entry<Integer, StoredPage> page: pages.entrySet()) {
+                    List<LeaderboardEntry> entries = page.getValue().result.getEntries();
+                    writeVarInt(out, page.getKey());
+                    out.writeLong(page.getValue().fetchedMillis);
+                    writeVarInt(out, entries.size());
+
+                    LeaderboardEntry previous = null;
+                    for (LeaderboardEntry entry: entries) {
+                        writeVarInt(out, nameIndexes.get(entry.name));
+                        writeVarInt(out, entry.level);
+                        if (previous == null) {
+                            writeVarInt(out, entry.rank);
+                            writeVarInt(out, entry.xp);
+                        } else {
+                            // Ranks only go up and XP only goes down within a page.
+                            writeVarInt(out, entry.rank - previous.rank);
+                            writeVarInt(out, previous.xp - entry.xp);
+                        }
+                        previous = entry;
+                    }
+                }
+            }
+
+            try {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Unable to write leaderboard page file {}", file, e);
+        }
+    }
+
+    /**
+     * Writes an unsigned int in 7 bit groups, least significant first. Values below 128 take a single byte.
+     */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new BufferUnderflowException();
+    }
+
+    private static String getFileName(LeaderboardEndpoint endpoint, Skill skill) {
+        return endpoint.name().toLowerCase() + "-" + SkillTable.valueOf(skill.name()).tableNumber + ".dat";
+    }
+}
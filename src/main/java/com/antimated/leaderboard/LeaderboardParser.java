@@ -1,11 +1,15 @@
 package com.antimated.leaderboard;
 
+import lombok.extern.slf4j.Slf4j;
+import okio.BufferedSource;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
-import java.text.NumberFormat;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.text.ParseException;
 import java.util.ArrayList;
 
@@ -13,8 +17,32 @@ import java.util.ArrayList;
  * Provides parsing logic for leaderboard HTML documents. `LeaderboardParser` depends on the structure of the OSRS
  * hiscores pages keeping the same format, meaning this is one of the classes that's most likely to break as Jagex
  * introduces changes to their website.
+ * <p>
+ * Pages are parsed with `LeaderboardStreamParser` first, which stops parsing once the leaderboard table is closed. If
+ * that fails, the full document is parsed with Jsoup instead, which is slower but more forgiving. Either way the caller
+ * still has to read the rest of the body if the response should end up in the HTTP cache.
  */
+@Slf4j
 public class LeaderboardParser {
+    /**
+     * Parses a leaderboard page from a response body. The streaming parser only peeks at `source`, so on failure the
+     * complete document can still be read for the Jsoup parser.
+     *
+     * @param source BufferedSource
+     * @param charset Charset of the document
+     * @return LeaderboardResult
+     * @throws IOException when reading the document fails.
+     * @throws ParseException when parsing of the document fails for any reason.
+     */
+    public static LeaderboardResult parse(BufferedSource source, Charset charset) throws IOException, ParseException {
+        try {
+            return LeaderboardStreamParser.parse(new InputStreamReader(source.peek().inputStream(), charset));
+        } catch (ParseException e) {
+            log.debug("Streaming leaderboard parser failed, falling back to Jsoup.", e);
+        }
+        return parseDocument(source.readString(charset));
+    }
+
     /**
      * Parses the unstructured `documentContents` into a LeaderboardResult.
      *
@@ -25,13 +53,19 @@ public class LeaderboardParser {
     public static LeaderboardResult parseDocument(String documentContents) throws ParseException {
         Document document = Jsoup.parse(documentContents);
         Element tableOuterDiv = document.getElementById("contentHiscores");
-        Element table = tableOuterDiv.selectFirst("table");
-        Element tableBody = table.selectFirst("tbody");
+        Element table = tableOuterDiv == null ? null : tableOuterDiv.selectFirst("table");
+        Element tableBody = table == null ? null : table.selectFirst("tbody");
+        if (tableBody == null) {
+            throw new ParseException("Leaderboard table not found", 0);
+        }
         Elements rows = tableBody.children();
 
         ArrayList<LeaderboardEntry> entries = new ArrayList<LeaderboardEntry>();
         for (Element row: rows.asList()) {
             Elements tableData = row.children();
+            if (tableData.size() < 5) {
+                throw new ParseException("Leaderboard row has " + tableData.size() + " cells", 0);
+            }
             // Element spaceElement = tableData.get(0);
             Element rankElement = tableData.get(1);
             Element nameElement = tableData.get(2);
@@ -39,10 +73,10 @@ public class LeaderboardParser {
             Element levelElement = tableData.get(3);
             Element xpElement = tableData.get(4);
 
-            int rank = NumberFormat.getNumberInstance(java.util.Locale.US).parse(rankElement.text()).intValue();
-            String name = nameAElement.text();
-            int level = Integer.parseInt(levelElement.text());
-            int xp = NumberFormat.getNumberInstance(java.util.Locale.US).parse(xpElement.text()).intValue();
+            int rank = LeaderboardStreamParser.parseNumber(rankElement.text());
+            String name = LeaderboardNamePool.intern(nameAElement == null ? nameElement.text() : nameAElement.text());
+            int level = LeaderboardStreamParser.parseNumber(levelElement.text());
+            int xp = LeaderboardStreamParser.parseNumber(xpElement.text());
             LeaderboardEntry entry = new LeaderboardEntry(name, rank, level, xp);
             entries.add(entry);
         }
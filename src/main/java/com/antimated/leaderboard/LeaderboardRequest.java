@@ -0,0 +1,24 @@
+package com.antimated.leaderboard;
+
+import okhttp3.Call;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Future for a single leaderboard page request. Cancelling it also cancels the underlying OkHttp `Call`, so a page that
+ * is no longer needed stops downloading and isn't parsed.
+ */
+public class LeaderboardRequest extends CompletableFuture<LeaderboardResult> {
+    private final Call call;
+
+    LeaderboardRequest(Call call) {
+        this.call = call;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        call.cancel();
+        return cancelled;
+    }
+}
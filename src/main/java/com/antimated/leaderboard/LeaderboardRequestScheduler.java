@@ -0,0 +1,64 @@
+package com.antimated.leaderboard;
+
+/**
+ * Global rate limit for requests to the hiscores leaderboards, shared by all skills.
+ * <p>
+ * Requests are limited in two ways. A token bucket refills at the configured number of requests per minute and allows
+ * short bursts of up to `BURST_SIZE` requests. A concurrency cap limits the number of requests in flight at once. The
+ * bucket is not refilled by `LeaderboardManager.reset()`, so hopping or re-logging doesn't grant a fresh burst.
+ * <p>
+ * Deciding which skill gets a token is up to the `LeaderboardManager`, which offers the most urgent skills first.
+ */
+public class LeaderboardRequestScheduler {
+    private static final int BURST_SIZE = 5;
+    static final int MAX_CONCURRENT_REQUESTS = 3;
+
+    private double tokens = BURST_SIZE;
+    private long lastRefillMillis = -1;
+    private int inFlight = 0;
+
+    /**
+     * Adds the tokens earned since the last refill.
+     *
+     * @param nowMillis long
+     * @param requestsPerMinute int
+     */
+    public void refill(long nowMillis, int requestsPerMinute) {
+        if (lastRefillMillis != -1 && nowMillis > lastRefillMillis) {
+            tokens = Math.min(BURST_SIZE, tokens + (nowMillis - lastRefillMillis) * requestsPerMinute / 60_000.0);
+        }
+        lastRefillMillis = nowMillis;
+    }
+
+    /**
+     * Takes a token for a new request, if one is available and the concurrency cap allows it. Every successful call
+     * must be paired with a call to `release()` once the request completes.
+     *
+     * @return boolean whether the request may be issued.
+     */
+    public boolean tryAcquire() {
+        if (inFlight >= MAX_CONCURRENT_REQUESTS || tokens < 1) {
+            return false;
+        }
+        tokens--;
+        inFlight++;
+        return true;
+    }
+
+    public void release() {
+        if (inFlight > 0) {
+            inFlight--;
+        }
+    }
+
+    /**
+     * Forgets about requests in flight, e.g. when their results will be dropped. Tokens are kept.
+     */
+    public void reset() {
+        inFlight = 0;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,58 @@
+package com.antimated.leaderboard;
+
+import lombok.Value;
+import net.runelite.api.Skill;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the leaderboard state of the most recent accounts after a reset, so hopping worlds or switching back to an
+ * account continues its leaderboard crawl instead of starting over. The state is keyed by account hash and endpoint.
+ * <p>
+ * Saved state expires after the same time as the cached leaderboard pages, after which a new crawl would be needed
+ * anyway.
+ */
+public class LeaderboardSessionCache {
+    private static final int MAX_SESSIONS = 4;
+
+    @Value
+    private static class SessionKey {
+        long accountHash;
+        LeaderboardEndpoint endpoint;
+    }
+
+    @Value
+    public static class Session {
+        Map<Skill, LeaderboardSkillState> skillStates;
+        PlayerSkillRanks playerRanks;
+        long savedMillis;
+    }
+
+    private final Map<SessionKey, Session> sessions = new LinkedHashMap<SessionKey, Session>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SessionKey, Session> eldest) {
+            return size() > MAX_SESSIONS;
+        }
+    };
+
+    /**
+     * Removes and returns the saved state of an account, or null if there is none or it expired.
+     *
+     * @param accountHash long
+     * @param endpoint LeaderboardEndpoint
+     * @param nowMillis long
+     * @return Session
+     */
+    public Session take(long accountHash, LeaderboardEndpoint endpoint, long nowMillis) {
+        Session session = sessions.remove(new SessionKey(accountHash, endpoint));
+        if (session == null || nowMillis - session.getSavedMillis() > LeaderboardPageCache.TTL_MILLIS) {
+            return null;
+        }
+        return session;
+    }
+
+    public void put(long accountHash, LeaderboardEndpoint endpoint, Session session) {
+        sessions.put(new SessionKey(accountHash, endpoint), session);
+    }
+}
@@ -1,7 +1,10 @@
 package com.antimated.leaderboard;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.Future;
 
 /**
@@ -14,17 +17,36 @@ public class LeaderboardSkillState {
     public boolean isDisabledFromError = false;
 
     // Indicates the number of retries that have been made on the current leaderboard page. Resets to zero after
-    // successfully processing a page.
+    // successfully processing a page. When to retry is decided by the endpoint's `LeaderboardCircuitBreaker`.
     public int currentPageRetryCount = 0;
 
-    // If not null, this is the Future pending an active request for leaderboard data.
-    public Future<LeaderboardResult> leaderboardFuture = null;
+    // Futures of the active requests for leaderboard data, by page. While the page of an unranked skill is being
+    // located, there is at most one.
+    public final Map<Integer, Future<LeaderboardResult>> pendingPages = new HashMap<>();
+
+    // The pending pages that were requested again because they went stale, rather than to extend the crawl.
+    public final Set<Integer> refreshPages = new HashSet<>();
 
     // The next rank that should be measured on the leaderboards. Gets set to the player's current rank-1 upon entering
     // the active state. It is used to determine which page to search for data. "Lowest" in this case means lowest
     // numerically, where rank 1 is lower than rank 2.
     public int nextRankToMeasure = 0;
 
-    // List of leaderboard entries that are currently being used to
-    public List<LeaderboardEntry> validLeaderboardEntries = new ArrayList<LeaderboardEntry>();
+    // If not null, the player has no rank in this skill, and this finds the page their XP falls on before regular
+    // processing begins.
+    public LeaderboardPageLocator pageLocator = null;
+
+    // Leaderboard entries above the player's current XP, which are the milestones still to be passed.
+    public final LeaderboardIndex validLeaderboardEntries = new LeaderboardIndex();
+
+    // When each page that was merged into the entries was fetched, by page. Only pages that still have entries above
+    // the player are kept.
+    public final TreeMap<Integer, Long> pageFetchedMillis = new TreeMap<>();
+
+    // The player's XP the entries were last trimmed to. Trimming is skipped while the XP stays the same, -1 forces the
+    // next trim, e.g. after new entries have been merged in.
+    public int trimmedToXp = -1;
+
+    // How fast the player is gaining XP in this skill, used to prioritize and time requests.
+    public final XpRate xpRate = new XpRate();
 }
@@ -0,0 +1,233 @@
+package com.antimated.leaderboard;
+
+import org.jsoup.parser.Parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming alternative to `LeaderboardParser.parseDocument`. Rather than building a DOM of the whole hiscores page,
+ * this reads the page incrementally, skips everything up to the `#contentHiscores` element, collects the cells of the
+ * rows of the first table inside it, and stops reading as soon as that table is closed.
+ * <p>
+ * This only understands as much HTML as the leaderboard table needs: tags, text and entities. Anything unexpected
+ * results in a ParseException, in which case `LeaderboardParser` falls back to the full Jsoup parser.
+ */
+public class LeaderboardStreamParser {
+    private static final int BUFFER_SIZE = 4096;
+
+    // Cells per row: [space, rank, name, level, xp]
+    private static final int RANK_CELL = 1;
+    private static final int NAME_CELL = 2;
+    private static final int LEVEL_CELL = 3;
+    private static final int XP_CELL = 4;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+
+    private final StringBuilder tag = new StringBuilder();
+    private final StringBuilder cell = new StringBuilder();
+    private final List<String> cells = new ArrayList<>(5);
+
+    private LeaderboardStreamParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Parses the leaderboard table from `reader`, reading no further than the end of the table.
+     *
+     * @param reader Reader
+     * @return LeaderboardResult
+     * @throws IOException when reading fails.
+     * @throws ParseException when the table cannot be found or a row cannot be parsed.
+     */
+    public static LeaderboardResult parse(Reader reader) throws IOException, ParseException {
+        return new LeaderboardStreamParser(reader).parseTable();
+    }
+
+    private LeaderboardResult parseTable() throws IOException, ParseException {
+        // Skip ahead to the table inside #contentHiscores.
+        while (!(readTag() && hasId("contentHiscores"))) {
+            // keep reading
+        }
+        while (!(readTag() && isStartTag("table"))) {
+            // keep reading
+        }
+
+        List<LeaderboardEntry> entries = new ArrayList<>(25);
+        boolean inHead = false;
+        boolean inCell = false;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new ParseException("Leaderboard table was not closed", 0);
+            }
+            if (c != '<') {
+                if (inCell) {
+                    cell.append((char) c);
+                }
+                continue;
+            }
+
+            readTagBody();
+            if (isStartTag("thead")) {
+                inHead = true;
+            } else if (isEndTag("thead")) {
+                inHead = false;
+            } else if (inHead) {
+                // Header rows are not part of the leaderboard.
+                continue;
+            } else if (isStartTag("tr")) {
+                cells.clear();
+            } else if (isStartTag("td")) {
+                cell.setLength(0);
+                inCell = true;
+            } else if (isEndTag("td")) {
+                cells.add(normalize(cell));
+                inCell = false;
+            } else if (isEndTag("tr")) {
+                if (!cells.isEmpty()) {
+                    entries.add(parseRow());
+                }
+                cells.clear();
+            } else if (isEndTag("table")) {
+                return new LeaderboardResult(entries);
+            }
+        }
+    }
+
+    private LeaderboardEntry parseRow() throws ParseException {
+        if (cells.size() <= XP_CELL) {
+            throw new ParseException("Leaderboard row has " + cells.size() + " cells", 0);
+        }
+        int rank = parseNumber(cells.get(RANK_CELL));
+        String name = LeaderboardNamePool.intern(cells.get(NAME_CELL));
+        int level = parseNumber(cells.get(LEVEL_CELL));
+        int xp = parseNumber(cells.get(XP_CELL));
+        return new LeaderboardEntry(name, rank, level, xp);
+    }
+
+    /**
+     * Parses a number as shown on the hiscores, e.g. "200,000,000", without depending on a locale.
+     *
+     * @param text String
+     * @return int
+     * @throws ParseException when the text is not a number.
+     */
+    public static int parseNumber(String text) throws ParseException {
+        long value = 0;
+        boolean hasDigits = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                hasDigits = true;
+                if (value > Integer.MAX_VALUE) {
+                    throw new ParseException("Number out of range: " + text, i);
+                }
+            } else if (c != ',') {
+                throw new ParseException("Unexpected character in number: " + text, i);
+            }
+        }
+        if (!hasDigits) {
+            throw new ParseException("Expected a number, got: \"" + text + "\"", 0);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads up to and including the next tag, skipping any text in between.
+     *
+     * @return always true, for use in loop conditions.
+     */
+    private boolean readTag() throws IOException, ParseException {
+        int c;
+        while ((c = read()) != '<') {
+            if (c == -1) {
+                throw new ParseException("Leaderboard table not found", 0);
+            }
+        }
+        readTagBody();
+        return true;
+    }
+
+    /**
+     * Reads the rest of a tag after its `<` into `tag`, e.g. `td class="left"` or `/td`.
+     */
+    private void readTagBody() throws IOException, ParseException {
+        tag.setLength(0);
+        int c;
+        while ((c = read()) != '>') {
+            if (c == -1) {
+                throw new ParseException("Unexpected end of document inside a tag", 0);
+            }
+            tag.append((char) c);
+        }
+    }
+
+    private boolean hasId(String id) {
+        return tag.length() > 0 && tag.charAt(0) != '/' && tag.charAt(0) != '!' &&
+               (tag.indexOf("id=\"" + id + "\"") >= 0 || tag.indexOf("id='" + id + "'") >= 0);
+    }
+
+    private boolean isStartTag(String name) {
+        return tagNameIs(0, name);
+    }
+
+    private boolean isEndTag(String name) {
+        return tag.length() > 0 && tag.charAt(0) == '/' && tagNameIs(1, name);
+    }
+
+    private boolean tagNameIs(int offset, String name) {
+        int end = offset + name.length();
+        if (tag.length() < end) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toLowerCase(tag.charAt(offset + i)) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return tag.length() == end || !Character.isLetterOrDigit(tag.charAt(end));
+    }
+
+    /**
+     * Decodes entities and collapses whitespace (including non-breaking spaces) the same way Jsoup's `Element.text()`
+     * does.
+     */
+    private static String normalize(StringBuilder text) {
+        String decoded = text.indexOf("&") >= 0 ? Parser.unescapeEntities(text.toString(), false) : text.toString();
+        StringBuilder normalized = new StringBuilder(decoded.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decoded.length(); i++) {
+            char c = decoded.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u00a0') {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
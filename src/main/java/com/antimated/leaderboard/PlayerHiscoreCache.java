@@ -0,0 +1,74 @@
+package com.antimated.leaderboard;
+
+import lombok.Value;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of player hiscore lookups. It's owned by the `LeaderboardManager` and survives a reset, so
+ * hopping worlds doesn't look up the same player again.
+ * <p>
+ * The player's ranks only serve as the starting point of the leaderboard crawl, so a lookup that's a few minutes old
+ * is good enough. The `PlayerRankTracker` only uses cached ranks that are newer than its own last lookup.
+ */
+public class PlayerHiscoreCache {
+    private static final int MAX_PLAYERS = 16;
+    private static final long TTL_MILLIS = 10 * 60 * 1000;
+
+    @Value
+    private static class PlayerKey {
+        String name;
+        LeaderboardEndpoint endpoint;
+    }
+
+    @Value
+    private static class CachedRanks {
+        PlayerSkillRanks ranks;
+        long fetchedMillis;
+    }
+
+    private final Map<PlayerKey, CachedRanks> players = new LinkedHashMap<PlayerKey, CachedRanks>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PlayerKey, CachedRanks> eldest) {
+            return size() > MAX_PLAYERS;
+        }
+    };
+
+    /**
+     * Returns the cached ranks of a player if they're still fresh, or null otherwise.
+     *
+     * @param name String
+     * @param endpoint LeaderboardEndpoint
+     * @param nowMillis long
+     * @return PlayerSkillRanks
+     */
+    public PlayerSkillRanks get(String name, LeaderboardEndpoint endpoint, long nowMillis) {
+        PlayerKey key = new PlayerKey(name, endpoint);
+        CachedRanks cached = players.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (nowMillis - cached.getFetchedMillis() > TTL_MILLIS) {
+            players.remove(key);
+            return null;
+        }
+        return cached.getRanks();
+    }
+
+    /**
+     * Returns when the cached ranks of a player were fetched, or -1 if none are cached.
+     *
+     * @param name String
+     * @param endpoint LeaderboardEndpoint
+     * @return long
+     */
+    public long getFetchedMillis(String name, LeaderboardEndpoint endpoint) {
+        CachedRanks cached = players.get(new PlayerKey(name, endpoint));
+        return cached == null ? -1 : cached.getFetchedMillis();
+    }
+
+    public void put(String name, LeaderboardEndpoint endpoint, PlayerSkillRanks ranks, long fetchedMillis) {
+        players.put(new PlayerKey(name, endpoint), new CachedRanks(ranks, fetchedMillis));
+    }
+}
@@ -0,0 +1,261 @@
+package com.antimated.leaderboard;
+
+import com.antimated.MilestoneLevelsConfig;
+import com.antimated.util.Util;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.Skill;
+import net.runelite.client.util.Text;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Looks up the player's own hiscore data now and then, so rank thresholds can be detected without crawling any
+ * leaderboard pages. A single lookup covers every skill. Lookups are made through the `LeaderboardManager`, which
+ * shares its player hiscore cache and circuit breakers with them and hands their outcome back on the client thread.
+ * <p>
+ * The first lookup after logging in sets the baseline, later lookups are only made while the player is training. The
+ * time between them adapts to how fast the ranks of the trained skills move: it's half the time the fastest of them
+ * needs to reach its next threshold at the rate seen between the last two lookups. While no rank moves, and after a
+ * failed lookup, it doubles instead. It's bounded by `MIN_REFRESH_MILLIS` and `MAX_REFRESH_MILLIS`.
+ */
+@Slf4j
+@Singleton
+public class PlayerRankTracker {
+    private static final long MIN_REFRESH_MILLIS = 2 * 60 * 1000;
+    private static final long MAX_REFRESH_MILLIS = 30 * 60 * 1000;
+    // Lookups are only made while a skill has gained XP this recently.
+    private static final long TRAINING_MILLIS = 10 * 60 * 1000;
+
+    @Inject
+    private Client client;
+
+    @Inject
+    private LeaderboardManager leaderboardManager;
+
+    @Inject
+    private MilestoneLevelsConfig config;
+
+    /**
+     * A trained skill whose rank crossed at least one threshold between two lookups. The previous rank is -1 if the
+     * skill wasn't ranked before.
+     */
+    @Value
+    public static class RankChange {
+        Skill skill;
+        int previousRank;
+        int currentRank;
+    }
+
+    // The ranks of the last lookup, and the account and endpoint they belong to.
+    private PlayerSkillRanks ranks = null;
+    private long ranksAccountHash = -1;
+    private LeaderboardEndpoint ranksEndpoint = null;
+    private long ranksMillis = 0;
+
+    // Whether a lookup is in flight, with the account and endpoint it's for and the skills trained before it started.
+    private boolean isLookingUp = false;
+    private long lookupAccountHash = -1;
+    private LeaderboardEndpoint lookupEndpoint = null;
+    private final EnumSet<Skill> lookupTrainedSkills = EnumSet.noneOf(Skill.class);
+
+    private long nextLookupMillis = 0;
+    private long refreshMillis = MIN_REFRESH_MILLIS;
+
+    // Skills that gained XP since the last lookup started.
+    private final EnumSet<Skill> trainedSkills = EnumSet.noneOf(Skill.class);
+    private long lastTrainedMillis = 0;
+
+    private final List<RankChange> rankChanges = new ArrayList<>();
+
+    /**
+     * Records that a skill gained XP, which keeps the lookups going.
+     *
+     * @param skill Skill
+     */
+    public void onXpGained(Skill skill) {
+        trainedSkills.add(skill);
+        lastTrainedMillis = System.currentTimeMillis();
+    }
+
+    public boolean hasRankChanges() {
+        return !rankChanges.isEmpty();
+    }
+
+    /**
+     * Returns the rank changes of all lookups since the last call, and forgets them.
+     *
+     * @return List<RankChange>
+     */
+    public List<RankChange> pollRankChanges() {
+        if (rankChanges.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<RankChange> changes = new ArrayList<>(rankChanges);
+        rankChanges.clear();
+        return changes;
+    }
+
+    /**
+     * Starts the next lookup once it's due. Called once per game tick, after the `LeaderboardManager` handed over the
+     * lookups that completed.
+     */
+    public void process() {
+        if (isLookingUp) {
+            return;
+        }
+
+        if (!config.enableRankMilestones() || client.getGameState() != GameState.LOGGED_IN ||
+            client.getLocalPlayer() == null || client.getLocalPlayer().getName() == null ||
+            !Util.isStandardWorld(client)) {
+            return;
+        }
+
+        long accountHash = client.getAccountHash();
+        LeaderboardEndpoint endpoint = LeaderboardEndpoint.valueOf(config.chosenLeaderboard().name());
+        if (ranks != null && (accountHash != ranksAccountHash || endpoint != ranksEndpoint)) {
+            // Another account or endpoint, the next lookup sets a new baseline right away.
+            reset();
+        }
+
+        long now = System.currentTimeMillis();
+        boolean isTraining = now - lastTrainedMillis <= TRAINING_MILLIS;
+        if ((ranks != null && !isTraining) || now < nextLookupMillis) {
+            return;
+        }
+
+        lookupAccountHash = accountHash;
+        lookupEndpoint = endpoint;
+        lookupTrainedSkills.clear();
+        lookupTrainedSkills.addAll(trainedSkills);
+        trainedSkills.clear();
+        isLookingUp = true;
+        if (!leaderboardManager.lookupPlayerRanks(client.getLocalPlayer().getName(), endpoint, ranks == null ? 0 : ranksMillis, this::handleLookup)) {
+            // Held back by the circuit breaker, or an earlier lookup is still in flight. Try again on the next tick.
+            isLookingUp = false;
+            trainedSkills.addAll(lookupTrainedSkills);
+        }
+    }
+
+    /**
+     * Forgets the ranks and drops the outgoing lookup, e.g. when the plugin is turned off.
+     */
+    public void reset() {
+        if (isLookingUp) {
+            leaderboardManager.cancelPlayerRanksLookup();
+            isLookingUp = false;
+        }
+        ranks = null;
+        ranksAccountHash = -1;
+        ranksEndpoint = null;
+        nextLookupMillis = 0;
+        refreshMillis = MIN_REFRESH_MILLIS;
+        trainedSkills.clear();
+        lastTrainedMillis = 0;
+        rankChanges.clear();
+    }
+
+    private void handleLookup(PlayerSkillRanks current, long fetchedMillis, Throwable error) {
+        isLookingUp = false;
+        if (error != null) {
+            refreshMillis = Math.min(refreshMillis * 2, MAX_REFRESH_MILLIS);
+            nextLookupMillis = fetchedMillis + refreshMillis;
+            log.warn("Failed to look up the player's hiscore ranks. Retrying in {}s.", refreshMillis / 1000, error);
+            return;
+        }
+
+        if (current == null) {
+            // The hiscores don't know about the player, e.g. because their account is too new.
+            log.debug("No hiscore data found for the player.");
+            nextLookupMillis = fetchedMillis + MAX_REFRESH_MILLIS;
+            return;
+        }
+
+        if (ranks != null && lookupAccountHash == ranksAccountHash && lookupEndpoint == ranksEndpoint) {
+            // Only trained skills can have moved up. XP gained while the lookup was in flight may already count.
+            List<Integer> thresholds = getThresholds();
+            for (Skill s: Skill.values()) {
+                if (!lookupTrainedSkills.contains(s) && !trainedSkills.contains(s)) {
+                    continue;
+                }
+                int previousRank = ranks.getRank(s);
+                int currentRank = current.getRank(s);
+                if (isThresholdCrossed(thresholds, previousRank, currentRank)) {
+                    rankChanges.add(new RankChange(s, previousRank, currentRank));
+                }
+            }
+            refreshMillis = getRefreshMillis(ranks, current, fetchedMillis - ranksMillis);
+        } else {
+            refreshMillis = MIN_REFRESH_MILLIS;
+        }
+
+        ranks = current;
+        ranksAccountHash = lookupAccountHash;
+        ranksEndpoint = lookupEndpoint;
+        ranksMillis = fetchedMillis;
+        nextLookupMillis = fetchedMillis + refreshMillis;
+    }
+
+    /**
+     * Returns the time until the next lookup, from how fast the ranks of the trained skills moved towards their next
+     * threshold between two lookups `elapsedMillis` apart.
+     */
+    private long getRefreshMillis(PlayerSkillRanks previous, PlayerSkillRanks current, long elapsedMillis) {
+        List<Integer> thresholds = getThresholds();
+        long refresh = -1;
+        for (Skill s: lookupTrainedSkills) {
+            int previousRank = previous.getRank(s);
+            int currentRank = current.getRank(s);
+            if (previousRank < 1 || currentRank < 1 || currentRank >= previousRank) {
+                continue;
+            }
+
+            int threshold = 0;
+            for (int t: thresholds) {
+                if (t < currentRank) {
+                    threshold = Math.max(threshold, t);
+                }
+            }
+            if (threshold == 0) {
+                continue;
+            }
+
+            double ranksPerMilli = (previousRank - currentRank) / (double) Math.max(elapsedMillis, 1);
+            long untilThreshold = (long) ((currentRank - threshold) / ranksPerMilli);
+            refresh = refresh == -1 ? untilThreshold / 2 : Math.min(refresh, untilThreshold / 2);
+        }
+
+        if (refresh == -1) {
+            refresh = refreshMillis * 2;
+        }
+        return Math.max(MIN_REFRESH_MILLIS, Math.min(MAX_REFRESH_MILLIS, refresh));
+    }
+
+    /**
+     * Whether a rank moved up to or past any threshold, from above it or from being unranked.
+     */
+    private static boolean isThresholdCrossed(List<Integer> thresholds, int previousRank, int currentRank) {
+        if (currentRank < 1) {
+            return false;
+        }
+        for (int t: thresholds) {
+            if (currentRank <= t && (previousRank < 1 || previousRank > t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Integer> getThresholds() {
+        return Text.fromCSV(config.showOnRanks()).stream()
+            .filter(Util::isInteger)
+            .map(Integer::parseInt)
+            .filter(n -> n > 0)
+            .collect(Collectors.toList());
+    }
+}
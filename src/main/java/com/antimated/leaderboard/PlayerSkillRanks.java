@@ -0,0 +1,30 @@
+package com.antimated.leaderboard;
+
+import net.runelite.api.Skill;
+import net.runelite.client.hiscore.HiscoreResult;
+import net.runelite.client.hiscore.HiscoreSkill;
+
+/**
+ * The parts of a player's hiscore data the `LeaderboardManager` uses: the rank and level of every skill, indexed by
+ * skill ordinal. A rank of -1 means the player is not ranked in that skill.
+ */
+public class PlayerSkillRanks {
+    private final int[] ranks = new int[Skill.values().length];
+    private final int[] levels = new int[Skill.values().length];
+
+    public PlayerSkillRanks(HiscoreResult result) {
+        for (Skill s: Skill.values()) {
+            net.runelite.client.hiscore.Skill hiscoreSkill = result.getSkill(HiscoreSkill.valueOf(s.name()));
+            ranks[s.ordinal()] = hiscoreSkill.getRank();
+            levels[s.ordinal()] = hiscoreSkill.getLevel();
+        }
+    }
+
+    public int getRank(Skill skill) {
+        return ranks[skill.ordinal()];
+    }
+
+    public int getLevel(Skill skill) {
+        return levels[skill.ordinal()];
+    }
+}
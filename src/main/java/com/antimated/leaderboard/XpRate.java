@@ -0,0 +1,74 @@
+package com.antimated.leaderboard;
+
+/**
+ * Tracks how fast the player is gaining XP in a single skill, as a moving average over the XP drops seen so far. The
+ * rate drops to zero once the skill hasn't gained XP for a while.
+ */
+public class XpRate {
+    // Weight of the newest sample in the moving average.
+    private static final double SMOOTHING = 0.3;
+    // A skill without XP gains for this long is considered idle.
+    private static final long IDLE_MILLIS = 5 * 60 * 1000;
+
+    private int lastXp = -1;
+    private long lastMillis = 0;
+    private long lastGainMillis = 0;
+    private int lastGain = 0;
+    private double xpPerSecond = 0;
+
+    /**
+     * Records the current XP of the skill. The first call only sets the baseline.
+     *
+     * @param xp int
+     * @param nowMillis long
+     */
+    public void update(int xp, long nowMillis) {
+        if (lastXp == -1 || xp < lastXp) {
+            lastXp = xp;
+            lastMillis = nowMillis;
+            return;
+        }
+        if (xp == lastXp) {
+            return;
+        }
+
+        double seconds = Math.max(nowMillis - lastMillis, 600) / 1000.0;
+        double sample = (xp - lastXp) / seconds;
+        // Restart the average after an idle period, otherwise a break would drag the rate down for a long time.
+        xpPerSecond = isIdle(nowMillis) ? sample : SMOOTHING * sample + (1 - SMOOTHING) * xpPerSecond;
+        lastGain = xp - lastXp;
+        lastXp = xp;
+        lastMillis = nowMillis;
+        lastGainMillis = nowMillis;
+    }
+
+    public double getXpPerSecond(long nowMillis) {
+        return isIdle(nowMillis) ? 0 : xpPerSecond;
+    }
+
+    /**
+     * Returns the size of the most recent XP drop, or 0 if the skill is idle.
+     */
+    public int getLastGain(long nowMillis) {
+        return isIdle(nowMillis) ? 0 : lastGain;
+    }
+
+    /**
+     * Returns when the skill last gained XP, or 0 if it hasn't since tracking started.
+     */
+    public long getLastGainMillis() {
+        return lastGainMillis;
+    }
+
+    public boolean isIdle(long nowMillis) {
+        return !hasGainedWithin(IDLE_MILLIS, nowMillis);
+    }
+
+    /**
+     * Returns whether the skill gained XP within the last `millis`. Skills that haven't gained any XP since tracking
+     * started never have.
+     */
+    public boolean hasGainedWithin(long millis, long nowMillis) {
+        return lastGainMillis != 0 && nowMillis - lastGainMillis <= millis;
+    }
+}
@@ -0,0 +1,88 @@
+package com.antimated.milestones;
+
+import com.antimated.MilestoneLevelsConfig;
+import com.antimated.notifications.NotificationManager;
+import com.antimated.util.Util;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+import net.runelite.client.util.Text;
+
+/**
+ * Combat levels from the combat levels list in the config.
+ */
+@Slf4j
+@Singleton
+public class CombatLevelMilestoneSource implements MilestoneSource
+{
+	private static final Skill[] COMBAT_SKILLS = {
+		Skill.ATTACK, Skill.STRENGTH, Skill.DEFENCE, Skill.HITPOINTS, Skill.MAGIC, Skill.RANGED, Skill.PRAYER
+	};
+
+	@Inject
+	private MilestoneLevelsConfig config;
+
+	@Inject
+	private NotificationManager notifications;
+
+	@Override
+	public void process(StatDelta delta)
+	{
+		if (!config.enableCombatLevel() || !delta.isComplete() || !hasCombatSkillChanged(delta))
+		{
+			return;
+		}
+
+		final int previousLevel = delta.getPreviousCombatLevel();
+		final int currentLevel = delta.getCurrentCombatLevel();
+
+		if (previousLevel >= currentLevel)
+		{
+			return;
+		}
+
+		for (int level : getMilestoneCombatLevels(previousLevel, currentLevel))
+		{
+			String title = Util.replaceLevel(config.notificationTotalTitle(), level);
+			String text = Util.replaceLevel(config.notificationCombatLevelText(), level);
+			int color = Util.getIntValue(config.notificationTotalColor());
+
+			log.debug("Notify combat level milestone reached to level {}", level);
+			notifications.addNotification(title, text, color);
+		}
+	}
+
+	private static boolean hasCombatSkillChanged(StatDelta delta)
+	{
+		for (Skill skill : COMBAT_SKILLS)
+		{
+			if (delta.hasChanged(skill))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Gets list of valid combat levels from config
+	 *
+	 * @param previousLevel int
+	 * @param currentLevel  int
+	 * @return List<Integer>
+	 */
+	private List<Integer> getMilestoneCombatLevels(int previousLevel, int currentLevel)
+	{
+		return Text.fromCSV(config.showOnCombatLevels()).stream()
+			.distinct()
+			.filter(Util::isInteger)
+			.map(Integer::parseInt)
+			.filter(n -> n > previousLevel && n <= currentLevel)
+			.sorted()
+			.collect(Collectors.toList());
+	}
+}
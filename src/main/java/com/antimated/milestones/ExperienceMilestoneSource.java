@@ -0,0 +1,91 @@
+package com.antimated.milestones;
+
+import com.antimated.MilestoneLevelsConfig;
+import com.antimated.notifications.NotificationManager;
+import com.antimated.util.Util;
+import com.google.common.annotations.VisibleForTesting;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+import net.runelite.client.util.QuantityFormatter;
+import net.runelite.client.util.Text;
+
+/**
+ * Skill xp values from the experience list in the config.
+ */
+@Slf4j
+@Singleton
+public class ExperienceMilestoneSource implements MilestoneSource
+{
+	@Inject
+	private MilestoneLevelsConfig config;
+
+	@Inject
+	private NotificationManager notifications;
+
+	@Override
+	public void process(StatDelta delta)
+	{
+		for (int i = 0; i < delta.getChangedCount(); i++)
+		{
+			final Skill skill = delta.getChangedSkill(i);
+			final int previousXp = delta.getPreviousXp(skill);
+			final int currentXp = delta.getCurrentXp(skill);
+
+			// Only notify on experience when the skill is enabled
+			if (previousXp >= currentXp || !Util.skillEnabledInConfig(config, skill))
+			{
+				continue;
+			}
+
+			final List<Integer> milestoneExperience = getMilestoneExperience(previousXp, currentXp);
+
+			if (!milestoneExperience.isEmpty())
+			{
+				log.debug("Milestone experience to notify for after {} check: {}", skill.getName(), milestoneExperience);
+
+				for (int xp : milestoneExperience)
+				{
+					notifyExperience(skill, xp);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the list of milestone xp values between two numbers from values specified in the milestone experience config
+	 *
+	 * @return List<Integer>
+	 */
+	@VisibleForTesting
+	List<Integer> getMilestoneExperience(int previousXp, int currentXp)
+	{
+		return Text.fromCSV(config.showOnExperience()).stream()
+			.distinct()
+			.filter(Util::isInteger)
+			.map(Integer::parseInt)
+			.filter(Util::isValidExperience)
+			.filter(n -> n > previousXp && n <= currentXp)
+			.sorted()
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Adds an xp notification to the queue if certain requirements are met.
+	 *
+	 * @param skill Skill
+	 * @param xp    int
+	 */
+	private void notifyExperience(Skill skill, int xp)
+	{
+		String title = Util.replaceSkillAndExperience(config.notificationExperienceTitle(), skill, xp);
+		String text = Util.replaceSkillAndExperience(config.notificationExperienceText(), skill, xp);
+		int color = Util.getIntValue(config.notificationExperienceColor());
+
+		log.debug("Notify xp milestone reached for {} to xp {}", skill.getName(), QuantityFormatter.formatNumber(xp));
+		notifications.addNotification(title, text, color);
+	}
+}
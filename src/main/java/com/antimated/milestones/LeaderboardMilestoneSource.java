@@ -0,0 +1,76 @@
+package com.antimated.milestones;
+
+import com.antimated.MilestoneLevelsConfig;
+import com.antimated.leaderboard.LeaderboardEntry;
+import com.antimated.leaderboard.LeaderboardManager;
+import com.antimated.notifications.NotificationManager;
+import com.antimated.util.Util;
+import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+import net.runelite.client.util.QuantityFormatter;
+
+/**
+ * Players passed on the skill leaderboards, as fetched by the {@link LeaderboardManager}.
+ */
+@Slf4j
+@Singleton
+public class LeaderboardMilestoneSource implements MilestoneSource
+{
+	@Inject
+	private MilestoneLevelsConfig config;
+
+	@Inject
+	private NotificationManager notifications;
+
+	@Inject
+	private LeaderboardManager leaderboardManager;
+
+	@Override
+	public void process(StatDelta delta)
+	{
+		for (int i = 0; i < delta.getChangedCount(); i++)
+		{
+			final Skill skill = delta.getChangedSkill(i);
+
+			if (!Util.skillEnabledInConfig(config, skill))
+			{
+				continue;
+			}
+
+			final List<LeaderboardEntry> milestoneLeaderboardEntries =
+				leaderboardManager.getMilestoneLeaderboardEntries(skill, delta.getPreviousXp(skill), delta.getCurrentXp(skill));
+
+			if (!milestoneLeaderboardEntries.isEmpty())
+			{
+				log.debug("Milestone leaderboard rank to notify for {}", skill.getName());
+
+				for (LeaderboardEntry entry : milestoneLeaderboardEntries)
+				{
+					notifyLeaderboard(skill, entry);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds a leaderboard rank notification to the queue if certain requirements are met.
+	 *
+	 * @param skill Skill
+	 * @param leaderboardEntry LeaderboardEntry
+	 */
+	private void notifyLeaderboard(Skill skill, LeaderboardEntry leaderboardEntry)
+	{
+		String title = Util.replaceLeaderboardValues(config.notificationLeaderboardRankTitle(), skill, leaderboardEntry);
+		String text = Util.replaceLeaderboardValues(config.notificationLeaderboardRankText(), skill, leaderboardEntry);
+		int color = Util.getIntValue(config.notificationLeaderboardRankColor());
+
+		log.debug("Notify leaderboard milestone reached for {} to rank {} (xp {})",
+				skill.getName(),
+				QuantityFormatter.formatNumber(leaderboardEntry.rank),
+				QuantityFormatter.formatNumber(leaderboardEntry.xp));
+		notifications.addNotification(title, text, color);
+	}
+}
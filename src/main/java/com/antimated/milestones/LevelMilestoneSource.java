@@ -0,0 +1,101 @@
+package com.antimated.milestones;
+
+import com.antimated.MilestoneLevelsConfig;
+import com.antimated.notifications.NotificationManager;
+import com.antimated.util.Util;
+import com.google.common.annotations.VisibleForTesting;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Experience;
+import net.runelite.api.Skill;
+import net.runelite.client.util.Text;
+
+/**
+ * Real skill levels from the levels list in the config.
+ */
+@Slf4j
+@Singleton
+public class LevelMilestoneSource implements MilestoneSource
+{
+	@Inject
+	private MilestoneLevelsConfig config;
+
+	@Inject
+	private NotificationManager notifications;
+
+	@Override
+	public void process(StatDelta delta)
+	{
+		for (int i = 0; i < delta.getChangedCount(); i++)
+		{
+			final Skill skill = delta.getChangedSkill(i);
+
+			// Only notify on regular levels when the skill is enabled
+			if (!Util.skillEnabledInConfig(config, skill))
+			{
+				continue;
+			}
+
+			final int previousLevel = Experience.getLevelForXp(delta.getPreviousXp(skill));
+			final int currentLevel = Experience.getLevelForXp(delta.getCurrentXp(skill));
+
+			if (previousLevel >= currentLevel)
+			{
+				continue;
+			}
+
+			final List<Integer> milestoneLevels = getMilestoneLevels(previousLevel, currentLevel);
+
+			if (!milestoneLevels.isEmpty())
+			{
+				log.debug("Milestone levels to notify for after {} check: {}", skill.getName(), milestoneLevels);
+
+				for (int level : milestoneLevels)
+				{
+					notifyLevel(config, notifications, skill, level);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets list of valid real levels from config
+	 *
+	 * @param previousLevel int
+	 * @param currentLevel  int
+	 * @return List<Integer>
+	 */
+	@VisibleForTesting
+	List<Integer> getMilestoneLevels(int previousLevel, int currentLevel)
+	{
+		return Text.fromCSV(config.showOnLevels()).stream()
+			.distinct()
+			.filter(Util::isInteger)
+			.map(Integer::parseInt)
+			.filter(Util::isValidRealLevel)
+			.filter(n -> n > previousLevel && n <= currentLevel)
+			.sorted()
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Adds a level-up notification to the queue, shared with virtual levels.
+	 *
+	 * @param config        MilestoneLevelsConfig
+	 * @param notifications NotificationManager
+	 * @param skill         Skill
+	 * @param level         int
+	 */
+	static void notifyLevel(MilestoneLevelsConfig config, NotificationManager notifications, Skill skill, int level)
+	{
+		String title = Util.replaceSkillAndLevel(config.notificationLevelTitle(), skill, level);
+		String text = Util.replaceSkillAndLevel(config.notificationLevelText(), skill, level);
+		int color = Util.getIntValue(config.notificationLevelColor());
+
+		log.debug("Notify {}up milestone reached for {} to level {}", level > Experience.MAX_REAL_LEVEL ? "virtual level-" : "level-", skill.getName(), level);
+		notifications.addNotification(title, text, color);
+	}
+}
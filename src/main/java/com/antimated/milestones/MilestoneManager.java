@@ -0,0 +1,109 @@
+package com.antimated.milestones;
+
+import com.antimated.util.Util;
+import java.util.List;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.Skill;
+
+/**
+ * Collects the stat changes of a game tick into a single {@link StatDelta}, and feeds it to every
+ * {@link MilestoneSource} once per tick.
+ */
+@Slf4j
+@Singleton
+public class MilestoneManager
+{
+	private final Client client;
+
+	private final List<MilestoneSource> sources;
+
+	private final RankMilestoneSource rankSource;
+
+	private final StatDelta delta = new StatDelta();
+
+	@Inject
+	MilestoneManager(
+		Client client,
+		LevelMilestoneSource levelSource,
+		VirtualLevelMilestoneSource virtualLevelSource,
+		ExperienceMilestoneSource experienceSource,
+		LeaderboardMilestoneSource leaderboardSource,
+		TotalLevelMilestoneSource totalLevelSource,
+		TotalExperienceMilestoneSource totalExperienceSource,
+		CombatLevelMilestoneSource combatLevelSource,
+		RankMilestoneSource rankSource)
+	{
+		this.client = client;
+		this.rankSource = rankSource;
+		this.sources = List.of(
+			levelSource,
+			virtualLevelSource,
+			experienceSource,
+			leaderboardSource,
+			totalLevelSource,
+			totalExperienceSource,
+			combatLevelSource,
+			rankSource
+		);
+	}
+
+	/**
+	 * Records the current xp of a skill, the first value per skill after a reset is its baseline.
+	 *
+	 * @param skill Skill
+	 * @param xp    int
+	 */
+	public void update(Skill skill, int xp)
+	{
+		delta.update(skill, xp);
+	}
+
+	/**
+	 * Treats the xp of a skill as changed from an older value during the current tick.
+	 *
+	 * @param skill      Skill
+	 * @param previousXp int
+	 */
+	public void rebase(Skill skill, int previousXp)
+	{
+		delta.rebase(skill, previousXp);
+	}
+
+	/**
+	 * Feeds the stat changes of this tick to all sources. Rank milestones arrive independently of stat changes, so
+	 * sources also run without any when those are pending.
+	 */
+	public void process()
+	{
+		if (delta.isEmpty() && !rankSource.hasPendingMilestones())
+		{
+			return;
+		}
+
+		// Only standard worlds are allowed, and if a player is in LMS, we should abort.
+		if (Util.isStandardWorld(client) && !Util.isInLMS(client))
+		{
+			for (MilestoneSource source : sources)
+			{
+				source.process(delta);
+			}
+		}
+		else
+		{
+			log.debug("Not on a standard world nor in LMS.");
+		}
+
+		delta.commit();
+	}
+
+	/**
+	 * Forgets all xp, e.g. when logging out or hopping.
+	 */
+	public void reset()
+	{
+		delta.reset();
+	}
+}
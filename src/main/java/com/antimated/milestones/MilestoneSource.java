@@ -0,0 +1,15 @@
+package com.antimated.milestones;
+
+/**
+ * A kind of milestone, e.g. skill levels or total level. Every source is fed the same {@link StatDelta} once per game
+ * tick, and notifies for all of its milestones that were crossed in that delta.
+ */
+public interface MilestoneSource
+{
+	/**
+	 * Notifies for all milestones crossed between the previous and current values of the delta.
+	 *
+	 * @param delta StatDelta
+	 */
+	void process(StatDelta delta);
+}
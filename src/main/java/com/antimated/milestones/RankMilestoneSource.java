@@ -0,0 +1,94 @@
+package com.antimated.milestones;
+
+import com.antimated.MilestoneLevelsConfig;
+import com.antimated.leaderboard.PlayerRankTracker;
+import com.antimated.notifications.NotificationManager;
+import com.antimated.util.Util;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+import net.runelite.client.util.Text;
+
+/**
+ * Rank thresholds from the ranks list in the config, as seen by the player's own hiscore lookups made by the
+ * {@link PlayerRankTracker}. Unlike {@link LeaderboardMilestoneSource}, no leaderboard pages are needed.
+ */
+@Slf4j
+@Singleton
+public class RankMilestoneSource implements MilestoneSource
+{
+	@Inject
+	private MilestoneLevelsConfig config;
+
+	@Inject
+	private NotificationManager notifications;
+
+	@Inject
+	private PlayerRankTracker rankTracker;
+
+	@Override
+	public void process(StatDelta delta)
+	{
+		for (int i = 0; i < delta.getChangedCount(); i++)
+		{
+			final Skill skill = delta.getChangedSkill(i);
+
+			if (Util.skillEnabledInConfig(config, skill))
+			{
+				rankTracker.onXpGained(skill);
+			}
+		}
+
+		for (PlayerRankTracker.RankChange change : rankTracker.pollRankChanges())
+		{
+			final Skill skill = change.getSkill();
+
+			if (!config.enableRankMilestones() || !Util.skillEnabledInConfig(config, skill))
+			{
+				continue;
+			}
+
+			for (int rank : getMilestoneRanks(change.getPreviousRank(), change.getCurrentRank()))
+			{
+				String title = Util.replaceSkillAndRank(config.notificationRankTitle(), skill, rank);
+				String text = Util.replaceSkillAndRank(config.notificationRankText(), skill, rank);
+				int color = Util.getIntValue(config.notificationRankColor());
+
+				log.debug("Notify rank milestone reached for {} to top {}", skill.getName(), rank);
+				notifications.addNotification(title, text, color);
+			}
+		}
+	}
+
+	/**
+	 * Whether rank changes are waiting to be notified, which doesn't depend on any stat changes.
+	 *
+	 * @return boolean
+	 */
+	public boolean hasPendingMilestones()
+	{
+		return rankTracker.hasRankChanges();
+	}
+
+	/**
+	 * Gets list of valid rank thresholds from config, from the highest rank to the lowest
+	 *
+	 * @param previousRank int, -1 if the skill wasn't ranked
+	 * @param currentRank  int
+	 * @return List<Integer>
+	 */
+	private List<Integer> getMilestoneRanks(int previousRank, int currentRank)
+	{
+		return Text.fromCSV(config.showOnRanks()).stream()
+			.distinct()
+			.filter(Util::isInteger)
+			.map(Integer::parseInt)
+			.filter(n -> n >= currentRank && (previousRank < 1 || n < previousRank))
+			.sorted(Comparator.reverseOrder())
+			.collect(Collectors.toList());
+	}
+}
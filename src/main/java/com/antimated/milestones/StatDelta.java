@@ -0,0 +1,229 @@
+package com.antimated.milestones;
+
+import java.util.Arrays;
+import net.runelite.api.Experience;
+import net.runelite.api.Skill;
+
+/**
+ * The stat changes of a single game tick, shared by all {@link MilestoneSource}s.
+ * <p>
+ * For every skill, the xp at the start of the tick and the current xp are tracked. Total level and total xp are
+ * maintained incrementally from the changes, so sources never have to sum up all skills. The first value received for
+ * a skill is its baseline and never counts as a change.
+ */
+public class StatDelta
+{
+	private static final Skill[] SKILLS = Skill.values();
+
+	private final int[] previousXp = new int[SKILLS.length];
+	private final int[] currentXp = new int[SKILLS.length];
+
+	// Skills that changed this tick, in order of their first change
+	private final Skill[] changedSkills = new Skill[SKILLS.length];
+	private final boolean[] changed = new boolean[SKILLS.length];
+	private int changedCount = 0;
+
+	private int knownCount = 0;
+
+	private int previousTotalLevel = 0;
+	private int currentTotalLevel = 0;
+
+	private long previousTotalXp = 0;
+	private long currentTotalXp = 0;
+
+	public StatDelta()
+	{
+		reset();
+	}
+
+	/**
+	 * Forgets all xp values, the next value for every skill becomes its baseline again.
+	 */
+	public void reset()
+	{
+		Arrays.fill(previousXp, -1);
+		Arrays.fill(currentXp, -1);
+		Arrays.fill(changedSkills, null);
+		Arrays.fill(changed, false);
+		changedCount = 0;
+		knownCount = 0;
+		previousTotalLevel = 0;
+		currentTotalLevel = 0;
+		previousTotalXp = 0;
+		currentTotalXp = 0;
+	}
+
+	/**
+	 * Records the current xp of a skill.
+	 *
+	 * @param skill Skill
+	 * @param xp    int
+	 */
+	public void update(Skill skill, int xp)
+	{
+		final int index = skill.ordinal();
+		final int oldXp = currentXp[index];
+
+		if (oldXp == xp)
+		{
+			return;
+		}
+
+		if (oldXp == -1)
+		{
+			// Baseline, both the start of the tick and the current values include it
+			previousXp[index] = xp;
+			currentXp[index] = xp;
+			knownCount++;
+
+			previousTotalLevel += getRealLevel(xp);
+			currentTotalLevel += getRealLevel(xp);
+			previousTotalXp += xp;
+			currentTotalXp += xp;
+			return;
+		}
+
+		currentXp[index] = xp;
+		currentTotalLevel += getRealLevel(xp) - getRealLevel(oldXp);
+		currentTotalXp += xp - oldXp;
+		markChanged(skill);
+	}
+
+	/**
+	 * Moves the start of the tick for a skill back to an older xp value, e.g. the xp from the last session. The
+	 * current xp of the skill must already be known.
+	 *
+	 * @param skill Skill
+	 * @param xp    int
+	 */
+	public void rebase(Skill skill, int xp)
+	{
+		final int index = skill.ordinal();
+		final int oldXp = previousXp[index];
+
+		if (oldXp == -1 || oldXp == xp)
+		{
+			return;
+		}
+
+		previousXp[index] = xp;
+		previousTotalLevel += getRealLevel(xp) - getRealLevel(oldXp);
+		previousTotalXp += xp - oldXp;
+		markChanged(skill);
+	}
+
+	/**
+	 * Ends the tick, the current values become the previous values of the next tick.
+	 */
+	public void commit()
+	{
+		for (int i = 0; i < changedCount; i++)
+		{
+			final int index = changedSkills[i].ordinal();
+			previousXp[index] = currentXp[index];
+			changed[index] = false;
+			changedSkills[i] = null;
+		}
+
+		changedCount = 0;
+		previousTotalLevel = currentTotalLevel;
+		previousTotalXp = currentTotalXp;
+	}
+
+	public boolean isEmpty()
+	{
+		return changedCount == 0;
+	}
+
+	/**
+	 * Whether the xp of every skill is known, totals are incomplete until then.
+	 *
+	 * @return boolean
+	 */
+	public boolean isComplete()
+	{
+		return knownCount == SKILLS.length;
+	}
+
+	public int getChangedCount()
+	{
+		return changedCount;
+	}
+
+	public Skill getChangedSkill(int i)
+	{
+		return changedSkills[i];
+	}
+
+	public boolean hasChanged(Skill skill)
+	{
+		return changed[skill.ordinal()];
+	}
+
+	public int getPreviousXp(Skill skill)
+	{
+		return previousXp[skill.ordinal()];
+	}
+
+	public int getCurrentXp(Skill skill)
+	{
+		return currentXp[skill.ordinal()];
+	}
+
+	public int getPreviousTotalLevel()
+	{
+		return previousTotalLevel;
+	}
+
+	public int getCurrentTotalLevel()
+	{
+		return currentTotalLevel;
+	}
+
+	public long getPreviousTotalXp()
+	{
+		return previousTotalXp;
+	}
+
+	public long getCurrentTotalXp()
+	{
+		return currentTotalXp;
+	}
+
+	public int getPreviousCombatLevel()
+	{
+		return getCombatLevel(previousXp);
+	}
+
+	public int getCurrentCombatLevel()
+	{
+		return getCombatLevel(currentXp);
+	}
+
+	private void markChanged(Skill skill)
+	{
+		if (!changed[skill.ordinal()])
+		{
+			changed[skill.ordinal()] = true;
+			changedSkills[changedCount++] = skill;
+		}
+	}
+
+	private static int getCombatLevel(int[] xp)
+	{
+		return Experience.getCombatLevel(
+			getRealLevel(xp[Skill.ATTACK.ordinal()]),
+			getRealLevel(xp[Skill.STRENGTH.ordinal()]),
+			getRealLevel(xp[Skill.DEFENCE.ordinal()]),
+			getRealLevel(xp[Skill.HITPOINTS.ordinal()]),
+			getRealLevel(xp[Skill.MAGIC.ordinal()]),
+			getRealLevel(xp[Skill.RANGED.ordinal()]),
+			getRealLevel(xp[Skill.PRAYER.ordinal()])
+		);
+	}
+
+	private static int getRealLevel(int xp)
+	{
+		return Math.min(Experience.getLevelForXp(xp), Experience.MAX_REAL_LEVEL);
+	}
+}
@@ -0,0 +1,66 @@
+package com.antimated.milestones;
+
+import com.antimated.MilestoneLevelsConfig;
+import com.antimated.notifications.NotificationManager;
+import com.antimated.util.Util;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.util.QuantityFormatter;
+import net.runelite.client.util.Text;
+
+/**
+ * Total xp values from the total experience list in the config. Total xp can exceed the int range, so it is a long.
+ */
+@Slf4j
+@Singleton
+public class TotalExperienceMilestoneSource implements MilestoneSource
+{
+	@Inject
+	private MilestoneLevelsConfig config;
+
+	@Inject
+	private NotificationManager notifications;
+
+	@Override
+	public void process(StatDelta delta)
+	{
+		final long previousXp = delta.getPreviousTotalXp();
+		final long currentXp = delta.getCurrentTotalXp();
+
+		if (!config.enableTotalExperience() || !delta.isComplete() || previousXp >= currentXp)
+		{
+			return;
+		}
+
+		for (long xp : getMilestoneTotalExperience(previousXp, currentXp))
+		{
+			String title = Util.replaceExperience(config.notificationTotalTitle(), xp);
+			String text = Util.replaceExperience(config.notificationTotalExperienceText(), xp);
+			int color = Util.getIntValue(config.notificationTotalColor());
+
+			log.debug("Notify total xp milestone reached to xp {}", QuantityFormatter.formatNumber(xp));
+			notifications.addNotification(title, text, color);
+		}
+	}
+
+	/**
+	 * Gets the list of milestone total xp values between two numbers from the config
+	 *
+	 * @param previousXp long
+	 * @param currentXp  long
+	 * @return List<Long>
+	 */
+	private List<Long> getMilestoneTotalExperience(long previousXp, long currentXp)
+	{
+		return Text.fromCSV(config.showOnTotalExperience()).stream()
+			.distinct()
+			.filter(Util::isLong)
+			.map(Long::parseLong)
+			.filter(n -> n > previousXp && n <= currentXp)
+			.sorted()
+			.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,65 @@
+package com.antimated.milestones;
+
+import com.antimated.MilestoneLevelsConfig;
+import com.antimated.notifications.NotificationManager;
+import com.antimated.util.Util;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.util.Text;
+
+/**
+ * Total levels from the total levels list in the config.
+ */
+@Slf4j
+@Singleton
+public class TotalLevelMilestoneSource implements MilestoneSource
+{
+	@Inject
+	private MilestoneLevelsConfig config;
+
+	@Inject
+	private NotificationManager notifications;
+
+	@Override
+	public void process(StatDelta delta)
+	{
+		final int previousLevel = delta.getPreviousTotalLevel();
+		final int currentLevel = delta.getCurrentTotalLevel();
+
+		if (!config.enableTotalLevel() || !delta.isComplete() || previousLevel >= currentLevel)
+		{
+			return;
+		}
+
+		for (int level : getMilestoneTotalLevels(previousLevel, currentLevel))
+		{
+			String title = Util.replaceLevel(config.notificationTotalTitle(), level);
+			String text = Util.replaceLevel(config.notificationTotalLevelText(), level);
+			int color = Util.getIntValue(config.notificationTotalColor());
+
+			log.debug("Notify total level milestone reached to level {}", level);
+			notifications.addNotification(title, text, color);
+		}
+	}
+
+	/**
+	 * Gets list of valid total levels from config
+	 *
+	 * @param previousLevel int
+	 * @param currentLevel  int
+	 * @return List<Integer>
+	 */
+	private List<Integer> getMilestoneTotalLevels(int previousLevel, int currentLevel)
+	{
+		return Text.fromCSV(config.showOnTotalLevels()).stream()
+			.distinct()
+			.filter(Util::isInteger)
+			.map(Integer::parseInt)
+			.filter(n -> n > previousLevel && n <= currentLevel)
+			.sorted()
+			.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,45 @@
+package com.antimated.milestones;
+
+import com.antimated.MilestoneLevelsConfig;
+import com.antimated.notifications.NotificationManager;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Experience;
+import net.runelite.api.Skill;
+
+/**
+ * Every virtual level (100 to 126), regardless of the enabled skills.
+ */
+@Slf4j
+@Singleton
+public class VirtualLevelMilestoneSource implements MilestoneSource
+{
+	@Inject
+	private MilestoneLevelsConfig config;
+
+	@Inject
+	private NotificationManager notifications;
+
+	@Override
+	public void process(StatDelta delta)
+	{
+		if (!config.showVirtualLevels())
+		{
+			return;
+		}
+
+		for (int i = 0; i < delta.getChangedCount(); i++)
+		{
+			final Skill skill = delta.getChangedSkill(i);
+			final int previousLevel = Experience.getLevelForXp(delta.getPreviousXp(skill));
+			final int currentLevel = Experience.getLevelForXp(delta.getCurrentXp(skill));
+
+			for (int level = Math.max(previousLevel + 1, Experience.MAX_REAL_LEVEL + 1); level <= currentLevel; level++)
+			{
+				log.debug("Virtual milestone level to notify for: {}", level);
+				LevelMilestoneSource.notifyLevel(config, notifications, skill, level);
+			}
+		}
+	}
+}
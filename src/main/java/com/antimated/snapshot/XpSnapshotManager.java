@@ -0,0 +1,264 @@
+package com.antimated.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+import net.runelite.client.RuneLite;
+import net.runelite.client.callback.ClientThread;
+
+/**
+ * Keeps a compact per-account snapshot of the xp in every skill on disk, so milestones crossed while the player was
+ * logged out (or before the first xp drop of a session) can still be attributed on the next login.
+ * <p>
+ * A snapshot is a small header followed by one int per skill, ordered by {@link Skill#ordinal()}. A value of 0 means
+ * the xp for that skill is unknown. Files are written to a temporary file first and then renamed over the old
+ * snapshot, so a crash mid-write never leaves a truncated snapshot behind.
+ * <p>
+ * Files are only read and written on the executor, which runs tasks in order, so a snapshot written at logout is
+ * always complete before it's read again. After hopping, the snapshot that is still in memory is reused instead.
+ * While a file is being read, the snapshot in memory is incomplete, so it isn't written or reused.
+ */
+@Slf4j
+@Singleton
+public class XpSnapshotManager
+{
+	private static final File SNAPSHOT_DIR = new File(RuneLite.RUNELITE_DIR, "milestone-levels");
+
+	private static final int MAGIC = 0x4D4C5850; // "MLXP"
+
+	private static final int VERSION = 1;
+
+	// Writes are throttled while training, the snapshot is always flushed at logout regardless.
+	private static final int MIN_TICKS_BETWEEN_WRITES = 100;
+
+	@Inject
+	private ScheduledExecutorService executor;
+
+	@Inject
+	private ClientThread clientThread;
+
+	private final int[] snapshot = new int[Skill.values().length];
+
+	private long accountHash = -1;
+
+	// The account of the snapshot in memory, which stays set after closing it.
+	private long snapshotAccountHash = -1;
+
+	private boolean dirty = false;
+
+	private int ticksSinceWrite = 0;
+
+	// Set while the snapshot file of the account is being read, and counts the reads, so one that completes after the
+	// snapshot was closed again doesn't clear the flag of the next one.
+	private boolean loading = false;
+
+	private int loads = 0;
+
+	/**
+	 * Loads the snapshot of an account and makes it the active snapshot. The snapshot still in memory is used if it
+	 * belongs to the same account, otherwise the file is read in the background.
+	 *
+	 * @param accountHash long
+	 * @param callback    receives the xp per skill from the last session, or null when there is no usable snapshot.
+	 *                    Runs on the client thread.
+	 */
+	public void load(long accountHash, Consumer<int[]> callback)
+	{
+		this.accountHash = accountHash;
+
+		// Changes that weren't written yet stay pending, and keep their place in the write throttle
+		if (accountHash == snapshotAccountHash)
+		{
+			callback.accept(snapshot.clone());
+			return;
+		}
+
+		snapshotAccountHash = accountHash;
+		Arrays.fill(snapshot, 0);
+		dirty = false;
+		ticksSinceWrite = 0;
+		loading = true;
+
+		final int load = ++loads;
+		final File file = getSnapshotFile(accountHash);
+		executor.execute(() ->
+		{
+			final int[] experiences = read(file);
+			clientThread.invokeLater(() ->
+			{
+				if (load == loads)
+				{
+					loading = false;
+				}
+				callback.accept(experiences);
+			});
+		});
+	}
+
+	/**
+	 * Replaces the active snapshot with the xp values of the current session.
+	 *
+	 * @param experiences int[] indexed by skill ordinal
+	 */
+	public void set(int[] experiences)
+	{
+		if (accountHash == -1)
+		{
+			return;
+		}
+
+		System.arraycopy(experiences, 0, snapshot, 0, Math.min(experiences.length, snapshot.length));
+		dirty = true;
+	}
+
+	/**
+	 * Updates the xp of a single skill in the active snapshot.
+	 *
+	 * @param skill Skill
+	 * @param xp    int
+	 */
+	public void update(Skill skill, int xp)
+	{
+		if (accountHash == -1 || snapshot[skill.ordinal()] == xp)
+		{
+			return;
+		}
+
+		snapshot[skill.ordinal()] = xp;
+		dirty = true;
+	}
+
+	/**
+	 * Writes the active snapshot if it changed, at most once every {@link #MIN_TICKS_BETWEEN_WRITES} ticks.
+	 */
+	public void onTick()
+	{
+		if (++ticksSinceWrite >= MIN_TICKS_BETWEEN_WRITES)
+		{
+			flush();
+		}
+	}
+
+	/**
+	 * Writes the active snapshot if it changed. Nothing is written while the snapshot is still being loaded.
+	 */
+	public void flush()
+	{
+		if (accountHash == -1 || !dirty || loading)
+		{
+			return;
+		}
+
+		final File file = getSnapshotFile(accountHash);
+		final int[] experiences = snapshot.clone();
+
+		dirty = false;
+		ticksSinceWrite = 0;
+		executor.execute(() -> write(file, experiences));
+	}
+
+	/**
+	 * Flushes and detaches the active snapshot, e.g. when logging out or hopping. A snapshot that is still being loaded
+	 * is dropped instead, so the file is read again on the next login.
+	 */
+	public void close()
+	{
+		if (loading)
+		{
+			loading = false;
+			snapshotAccountHash = -1;
+			dirty = false;
+		}
+
+		flush();
+		accountHash = -1;
+	}
+
+	private static int[] read(File file)
+	{
+		if (!file.exists())
+		{
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+		{
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+			{
+				log.debug("Ignoring xp snapshot with unknown format: {}", file);
+				return null;
+			}
+
+			// Skills added after the snapshot was written stay 0, and are therefore skipped.
+			int[] experiences = new int[Skill.values().length];
+			int count = Math.min(in.readInt(), experiences.length);
+
+			for (int i = 0; i < count; i++)
+			{
+				experiences[i] = in.readInt();
+			}
+
+			return experiences;
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to read xp snapshot {}", file, e);
+			return null;
+		}
+	}
+
+	private static void write(File file, int[] experiences)
+	{
+		File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+
+		try
+		{
+			Files.createDirectories(SNAPSHOT_DIR.toPath());
+
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp))))
+			{
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(experiences.length);
+
+				for (int xp : experiences)
+				{
+					out.writeInt(xp);
+				}
+			}
+
+			try
+			{
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException e)
+			{
+				Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to write xp snapshot {}", file, e);
+		}
+	}
+
+	private static File getSnapshotFile(long accountHash)
+	{
+		return new File(SNAPSHOT_DIR, "xp-" + Long.toUnsignedString(accountHash, 16) + ".dat");
+	}
+}
@@ -58,6 +58,23 @@ public class Util
 		}
 	}
 
+	/**
+	 * @param string String
+	 * @return boolean
+	 */
+	public static boolean isLong(String string)
+	{
+		try
+		{
+			Long.parseLong(string);
+			return true;
+		}
+		catch (NumberFormatException e)
+		{
+			return false;
+		}
+	}
+
 	/**
 	 * Gets the int value for a color.
 	 *
@@ -106,6 +123,47 @@ public class Util
 	}
 
 
+	/**
+	 * Replaces the word $level from the text to the passed level
+	 *
+	 * @param text  String
+	 * @param level int
+	 * @return String
+	 */
+	public static String replaceLevel(String text, int level)
+	{
+		return Text.escapeJagex(text
+			.replaceAll("\\$level", Integer.toString(level)));
+	}
+
+	/**
+	 * Replaces the word $xp from the text to the passed xp
+	 *
+	 * @param text String
+	 * @param xp   long
+	 * @return String
+	 */
+	public static String replaceExperience(String text, long xp)
+	{
+		return Text.escapeJagex(text
+			.replaceAll("\\$xp", QuantityFormatter.formatNumber(xp)));
+	}
+
+	/**
+	 * Replaces the words $skill and $rank from the text to the passed skill and rank respectively
+	 *
+	 * @param text  String
+	 * @param skill Skill
+	 * @param rank  int
+	 * @return String
+	 */
+	public static String replaceSkillAndRank(String text, Skill skill, int rank)
+	{
+		return Text.escapeJagex(text
+			.replaceAll("\\$skill", skill.getName())
+			.replaceAll("\\$rank", QuantityFormatter.formatNumber(rank)));
+	}
+
 	/** Replaces the words $skill, $xp, $rank, and $player from the text to the passed skill and data from
 	 * leaderboardEntry
 	 *
@@ -0,0 +1,79 @@
+package com.antimated.leaderboard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class LeaderboardCircuitBreakerTest
+{
+	private static final long LATER = 24 * 60 * 60_000L;
+
+	@Test
+	public void testOpensAfterConsecutiveFailures()
+	{
+		LeaderboardCircuitBreaker breaker = new LeaderboardCircuitBreaker();
+		for (int i = 0; i < 5; i++)
+		{
+			breaker.onRequest(0);
+			breaker.onFailure(0);
+		}
+
+		assertEquals(LeaderboardCircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.canRequest(0));
+		assertTrue(breaker.canRequest(LATER));
+	}
+
+	@Test
+	public void testOnlyOneProbeAtATime()
+	{
+		LeaderboardCircuitBreaker breaker = startProbe();
+
+		assertEquals(LeaderboardCircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertFalse(breaker.canRequest(LATER));
+	}
+
+	@Test
+	public void testSuccessfulProbeCloses()
+	{
+		LeaderboardCircuitBreaker breaker = startProbe();
+		breaker.onSuccess();
+
+		assertEquals(LeaderboardCircuitBreaker.State.CLOSED, breaker.getState());
+		assertTrue(breaker.canRequest(LATER));
+	}
+
+	@Test
+	public void testFailedProbeOpensAgain()
+	{
+		LeaderboardCircuitBreaker breaker = startProbe();
+		breaker.onFailure(LATER);
+
+		assertEquals(LeaderboardCircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.canRequest(LATER));
+	}
+
+	@Test
+	public void testReleasedProbeLetsTheNextRequestProbe()
+	{
+		LeaderboardCircuitBreaker breaker = startProbe();
+		breaker.releaseProbe();
+
+		assertEquals(LeaderboardCircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertTrue(breaker.canRequest(LATER));
+		breaker.onRequest(LATER);
+		assertFalse(breaker.canRequest(LATER));
+	}
+
+	private static LeaderboardCircuitBreaker startProbe()
+	{
+		LeaderboardCircuitBreaker breaker = new LeaderboardCircuitBreaker();
+		for (int i = 0; i < 5; i++)
+		{
+			breaker.onRequest(0);
+			breaker.onFailure(0);
+		}
+		breaker.onRequest(LATER);
+		return breaker;
+	}
+}
@@ -0,0 +1,172 @@
+package com.antimated.leaderboard;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.runelite.api.Skill;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the HTTP cache of `LeaderboardClient` against a local server, which serves a page from the parser corpus with
+ * an ETag and the caching headers of the hiscores.
+ */
+public class LeaderboardClientTest
+{
+	private static final String PAGE = "corpus/normal-fishing-page-2040.html";
+	private static final String ETAG = "\"page-2040\"";
+	// The server's Date header has a resolution of a second, which counts towards the age of a cached page.
+	private static final int MAX_AGE_SECONDS = 2;
+	// The body is sent in two parts, the second one later than OkHttp waits for the rest of a body that is closed early.
+	// The first part holds the leaderboard table, and the parser reads ahead of it in 8 KB steps.
+	private static final int FIRST_PART_BYTES = 16 * 1024;
+	private static final long SECOND_PART_DELAY_MILLIS = 300;
+
+	private final AtomicInteger fullResponses = new AtomicInteger();
+	private final AtomicInteger notModifiedResponses = new AtomicInteger();
+	// Holds back the rest of the pages served under `/held` until it's released
+	private final CountDownLatch heldPageRelease = new CountDownLatch(1);
+
+	private HttpServer server;
+	private File cacheDir;
+	private HttpUrl url;
+	private LeaderboardClient client;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		String contents;
+		try (InputStream in = LeaderboardClientTest.class.getResourceAsStream(PAGE))
+		{
+			contents = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		// Live pages have a lot more markup after the table than the corpus pages
+		byte[] page = (contents + " ".repeat(2 * FIRST_PART_BYTES)).getBytes(StandardCharsets.UTF_8);
+
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/", exchange ->
+		{
+			exchange.getResponseHeaders().set("ETag", ETAG);
+			// The hiscores send this as well, the client is expected to override it
+			exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+			if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+			{
+				notModifiedResponses.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+			}
+			else
+			{
+				fullResponses.incrementAndGet();
+				exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+				exchange.sendResponseHeaders(200, page.length);
+				try (OutputStream out = exchange.getResponseBody())
+				{
+					out.write(page, 0, FIRST_PART_BYTES);
+					out.flush();
+					Thread.sleep(SECOND_PART_DELAY_MILLIS);
+					out.write(page, FIRST_PART_BYTES, page.length - FIRST_PART_BYTES);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+			}
+			exchange.close();
+		});
+		server.createContext("/held", exchange ->
+		{
+			exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+			exchange.sendResponseHeaders(200, page.length);
+			try (OutputStream out = exchange.getResponseBody())
+			{
+				out.write(page, 0, FIRST_PART_BYTES);
+				out.flush();
+				heldPageRelease.await(30, TimeUnit.SECONDS);
+				out.write(page, FIRST_PART_BYTES, page.length - FIRST_PART_BYTES);
+			}
+			catch (IOException e)
+			{
+				// The client closed the connection without reading the rest
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			exchange.close();
+		});
+		server.start();
+
+		cacheDir = Files.createTempDirectory("leaderboard-cache").toFile();
+		url = HttpUrl.get("http://127.0.0.1:" + server.getAddress().getPort() + "/overall");
+		client = new LeaderboardClient(new OkHttpClient(), new Gson(), cacheDir, MAX_AGE_SECONDS);
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		heldPageRelease.countDown();
+		server.stop(0);
+		Files.walk(cacheDir.toPath()).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+	}
+
+	@Test
+	public void testFirstRequestIsAMiss() throws Exception
+	{
+		assertEquals(25, fetch());
+		assertEquals("0 hits, 1 misses, 0 revalidated", client.getCacheStats());
+	}
+
+	@Test
+	public void testFreshPageIsAHit() throws Exception
+	{
+		fetch();
+		assertEquals(25, fetch());
+
+		assertEquals("1 hits, 1 misses, 0 revalidated", client.getCacheStats());
+		assertEquals(1, fullResponses.get());
+	}
+
+	@Test
+	public void testStalePageIsRevalidated() throws Exception
+	{
+		fetch();
+		Thread.sleep(TimeUnit.SECONDS.toMillis(MAX_AGE_SECONDS + 1));
+		assertEquals(25, fetch());
+
+		assertEquals("0 hits, 1 misses, 1 revalidated", client.getCacheStats());
+		assertEquals(1, fullResponses.get());
+		assertEquals(1, notModifiedResponses.get());
+	}
+
+	@Test
+	public void testUncachedPageStopsReadingAfterTheTable() throws Exception
+	{
+		LeaderboardClient uncachedClient = new LeaderboardClient(new OkHttpClient(), new Gson(), null, MAX_AGE_SECONDS);
+		HttpUrl heldUrl = HttpUrl.get("http://127.0.0.1:" + server.getAddress().getPort() + "/held");
+
+		// The rest of the page is only sent after the lookup completed, or after it timed out waiting for it
+		LeaderboardResult result = uncachedClient.lookupAsync(Skill.FISHING, 2040, heldUrl).get(5, TimeUnit.SECONDS);
+		assertEquals(25, result.getEntries().size());
+	}
+
+	private int fetch() throws Exception
+	{
+		return client.lookupAsync(Skill.FISHING, 2040, url).get(10, TimeUnit.SECONDS).getEntries().size();
+	}
+}
@@ -0,0 +1,349 @@
+package com.antimated.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class LeaderboardIndexTest
+{
+	@Test
+	public void testPagesInCrawlOrder()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		index.addPage(page(
+			entry("C", 3, 700),
+			entry("D", 4, 600)));
+		index.addPage(page(
+			entry("A", 1, 900),
+			entry("B", 2, 800)));
+
+		assertEntries(index, "D:4:600", "C:3:700", "B:2:800", "A:1:900");
+	}
+
+	@Test
+	public void testOutOfOrderPages()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		index.addPage(page(
+			entry("A", 1, 900),
+			entry("B", 2, 800)));
+		index.addPage(page(
+			entry("C", 3, 700),
+			entry("D", 4, 600)));
+
+		assertEntries(index, "D:4:600", "C:3:700", "B:2:800", "A:1:900");
+	}
+
+	@Test
+	public void testOverlappingPages()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		index.addPage(page(
+			entry("C", 3, 700),
+			entry("D", 4, 600),
+			entry("E", 5, 500)));
+		// Fetched later, E gained XP and moved up, everyone in between moved down a rank
+		index.addPage(page(
+			entry("B", 2, 800),
+			entry("E", 3, 750),
+			entry("C", 4, 700)));
+
+		assertEntries(index, "D:5:600", "C:4:700", "E:3:750", "B:2:800");
+	}
+
+	@Test
+	public void testDuplicatePlayerAtNewXp()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		index.addPage(page(
+			entry("A", 10, 1000),
+			entry("X", 11, 900),
+			entry("B", 12, 800)));
+		index.addPage(page(
+			entry("X", 9, 1100),
+			entry("A", 10, 1000)));
+
+		assertEntries(index, "B:12:800", "A:10:1000", "X:9:1100");
+	}
+
+	@Test
+	public void testPlayerMovedUpFromTheTopOfTheIndex()
+	{
+		assertMovedUp(902);
+	}
+
+	@Test
+	public void testPlayersMovedUpFromBothEndsOfTheIndex()
+	{
+		assertMovedUp(999, 902);
+	}
+
+	@Test
+	public void testPlayerMovedUpAfterNameTableCompaction()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		index.addPage(crawlPage(1000, 25));
+		index.addPage(crawlPage(975, 25));
+		// Compacts the name table, so the XP of the remaining players is looked up from the rebuilt table
+		index.keepLowest(10);
+
+		index.addPage(page(entry("Player 1000", 990, xpOf(990))));
+		List<String> expected = new ArrayList<>();
+		for (int rank = 999; rank >= 991; rank--)
+		{
+			expected.add("Player " + rank + ":" + rank + ":" + xpOf(rank));
+		}
+		expected.add("Player 1000:990:" + xpOf(990));
+		assertEquals(expected, describe(index));
+	}
+
+	@Test
+	public void testMaxXpTiesCollapseIntoBestRank()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		index.addPage(page(
+			entry("A", 1, 200_000_000),
+			entry("B", 2, 200_000_000),
+			entry("C", 3, 200_000_000),
+			entry("D", 4, 199_000_000)));
+		index.addPage(page(
+			entry("E", 5, 200_000_000),
+			entry("F", 6, 198_000_000)));
+
+		assertEntries(index, "F:6:198000000", "D:4:199000000", "A:1:200000000");
+	}
+
+	@Test
+	public void testRanksOfOlderEntriesArePushedDown()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		index.addPage(page(
+			entry("B", 9, 200),
+			entry("A", 10, 100)));
+		// Two players passed B and A since, so they are at least rank 10 and 11 now
+		index.addPage(page(
+			entry("D", 8, 400),
+			entry("C", 9, 300)));
+
+		assertEntries(index, "A:11:100", "B:10:200", "C:9:300", "D:8:400");
+	}
+
+	@Test
+	public void testRemoveUpTo()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		index.addPage(page(
+			entry("A", 1, 900),
+			entry("B", 2, 800),
+			entry("C", 3, 700)));
+
+		index.removeUpTo(800);
+		assertEntries(index, "A:1:900");
+
+		index.removeUpTo(900);
+		assertTrue(index.isEmpty());
+	}
+
+	@Test
+	public void testMergeAfterRemoveUpToReclaimsConsumedSlots()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		int rank = 1000;
+		for (int p = 0; p < 5; p++)
+		{
+			index.addPage(crawlPage(rank, 25));
+			rank -= 25;
+		}
+		long retainedBytes = index.getRetainedBytes(newNameSet());
+
+		// Keep 5 of the 125 entries, so the next pages fit once the consumed slots are reclaimed
+		index.removeUpTo(xpOf(rank + 6));
+		assertEquals(5, index.size());
+		for (int p = 0; p < 4; p++)
+		{
+			index.addPage(crawlPage(rank, 25));
+			rank -= 25;
+		}
+
+		assertEquals(105, index.size());
+		// The arrays didn't grow, only the names of the 20 fewer entries are gone
+		assertTrue(index.getRetainedBytes(newNameSet()) < retainedBytes);
+		assertCrawled(index, rank + 1, rank + 105);
+	}
+
+	@Test
+	public void testNameTableCompaction()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		int rank = 100_000;
+		// Many more names pass through the index than fit in its name table at once
+		for (int p = 0; p < 100; p++)
+		{
+			index.addPage(crawlPage(rank, 25));
+			index.removeUpTo(xpOf(rank - 19));
+			rank -= 25;
+		}
+
+		assertEquals(5, index.size());
+		assertCrawled(index, rank + 1, rank + 5);
+	}
+
+	@Test
+	public void testKeepLowestThenAddPage()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		index.addPage(crawlPage(500, 25));
+		index.addPage(crawlPage(475, 25));
+		index.addPage(crawlPage(450, 25));
+
+		index.keepLowest(30);
+		assertEquals(30, index.size());
+		assertCrawled(index, 471, 500);
+
+		index.addPage(crawlPage(470, 25));
+		assertEquals(55, index.size());
+		assertCrawled(index, 446, 500);
+	}
+
+	@Test
+	public void testReplacePageDropsPlayersThatLeftIt()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		index.addPage(page(
+			entry("A", 1, 900),
+			entry("B", 2, 800),
+			entry("C", 3, 700),
+			entry("D", 4, 600)));
+		// C changed their name to Z
+		index.replacePage(page(
+			entry("B", 2, 800),
+			entry("Z", 3, 700),
+			entry("D", 4, 600)));
+
+		assertEntries(index, "D:4:600", "Z:3:700", "B:2:800", "A:1:900");
+	}
+
+	@Test
+	public void testBetween()
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		index.addPage(page(
+			entry("A", 1, 900),
+			entry("B", 2, 800),
+			entry("C", 3, 700)));
+
+		assertEquals(Collections.singletonList("B:2:800"), describe(index.between(700, 900)));
+		assertEquals(Arrays.asList("C:3:700", "B:2:800"), describe(index.between(600, 850)));
+		assertTrue(index.between(900, 1000).isEmpty());
+	}
+
+	private static LeaderboardEntry entry(String name, int rank, int xp)
+	{
+		return new LeaderboardEntry(name, rank, 99, xp);
+	}
+
+	private static List<LeaderboardEntry> page(LeaderboardEntry... entries)
+	{
+		return Arrays.asList(entries);
+	}
+
+	/**
+	 * A page in crawl order, i.e. the `count` ranks above `belowRank`, ordered by rank. Every rank has its own player
+	 * and XP value.
+	 */
+	private static List<LeaderboardEntry> crawlPage(int belowRank, int count)
+	{
+		List<LeaderboardEntry> page = new ArrayList<>();
+		for (int rank = belowRank - count + 1; rank <= belowRank; rank++)
+		{
+			page.add(entry("Player " + rank, rank, xpOf(rank)));
+		}
+		return page;
+	}
+
+	private static int xpOf(int rank)
+	{
+		return 10_000_000 - rank * 10;
+	}
+
+	/**
+	 * Asserts the index holds exactly the crawled ranks `fromRank` to `toRank`.
+	 */
+	private static void assertCrawled(LeaderboardIndex index, int fromRank, int toRank)
+	{
+		List<String> expected = new ArrayList<>();
+		for (int rank = toRank; rank >= fromRank; rank--)
+		{
+			expected.add("Player " + rank + ":" + rank + ":" + xpOf(rank));
+		}
+		assertEquals(expected, describe(index));
+	}
+
+	/**
+	 * Crawls ranks 901 to 1000, then adds the page above them on which the given players show up at new ranks.
+	 */
+	private static void assertMovedUp(int... movedRanks)
+	{
+		LeaderboardIndex index = new LeaderboardIndex();
+		for (int rank = 1000; rank > 900; rank -= 25)
+		{
+			index.addPage(crawlPage(rank, 25));
+		}
+
+		List<LeaderboardEntry> page = crawlPage(900, 25);
+		List<String> expected = new ArrayList<>();
+		for (int rank = 1000; rank > 900; rank--)
+		{
+			expected.add("Player " + rank + ":" + rank + ":" + xpOf(rank));
+		}
+		for (int i = 0; i < movedRanks.length; i++)
+		{
+			LeaderboardEntry replaced = page.get(5 + i * 10);
+			page.set(5 + i * 10, entry("Player " + movedRanks[i], replaced.rank, replaced.xp));
+			expected.remove("Player " + movedRanks[i] + ":" + movedRanks[i] + ":" + xpOf(movedRanks[i]));
+		}
+		for (int i = page.size() - 1; i >= 0; i--)
+		{
+			expected.add(page.get(i).name + ":" + page.get(i).rank + ":" + page.get(i).xp);
+		}
+
+		index.addPage(page);
+		assertEquals(expected, describe(index));
+	}
+
+	private static void assertEntries(LeaderboardIndex index, String... expected)
+	{
+		assertEquals(Arrays.asList(expected), describe(index));
+	}
+
+	private static List<String> describe(LeaderboardIndex index)
+	{
+		List<String> entries = new ArrayList<>();
+		for (int i = 0; i < index.size(); i++)
+		{
+			entries.add(index.getName(i) + ":" + index.getRank(i) + ":" + index.getXp(i));
+		}
+		return entries;
+	}
+
+	private static List<String> describe(List<LeaderboardEntry> entries)
+	{
+		List<String> described = new ArrayList<>();
+		for (LeaderboardEntry entry : entries)
+		{
+			described.add(entry.name + ":" + entry.rank + ":" + entry.xp);
+		}
+		return described;
+	}
+
+	private static Set<String> newNameSet()
+	{
+		return Collections.newSetFromMap(new IdentityHashMap<>());
+	}
+}
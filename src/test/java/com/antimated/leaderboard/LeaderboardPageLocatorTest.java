@@ -0,0 +1,74 @@
+package com.antimated.leaderboard;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Locates pages on a simulated leaderboard of a million players, whose XP falls off quickly at the top and flattens out
+ * towards the end, like the real leaderboards. Unranked players are found near the end, which has to take only a few
+ * probes even though the pages past it are empty. Elsewhere the locator may take up to twice as many probes as a
+ * binary search.
+ */
+public class LeaderboardPageLocatorTest {
+    private static final int PLAYERS = 1_000_000;
+    // A binary search over all pages takes 17 probes
+    private static final int BINARY_SEARCH_PROBES = 17;
+
+    @Test
+    public void testPlayerNearTheTop() {
+        assertLocated(xpOf(1_000) - 1, 2 * BINARY_SEARCH_PROBES);
+    }
+
+    @Test
+    public void testPlayerInTheMiddle() {
+        assertLocated(xpOf(500_000) - 1, 2 * BINARY_SEARCH_PROBES);
+    }
+
+    @Test
+    public void testPlayerSomePagesBeforeTheEnd() {
+        assertLocated(xpOf(PLAYERS - 1_000) - 1, 12);
+    }
+
+    @Test
+    public void testPlayerOnTheLastPage() {
+        assertLocated(xpOf(PLAYERS - 30) - 1, 4);
+    }
+
+    @Test
+    public void testPlayerBelowTheEnd() {
+        assertLocated(xpOf(PLAYERS) - 1, 4);
+    }
+
+    private static void assertLocated(int xp, int maxProbes) {
+        LeaderboardPageLocator locator = new LeaderboardPageLocator();
+        while (!locator.isDone()) {
+            int page = locator.getNextPage(xp);
+            locator.addPage(page, page(page), xp);
+        }
+
+        // The last page with a player above the given XP
+        int rank = 0;
+        while (rank < PLAYERS && xpOf(rank + 1) > xp) {
+            rank++;
+        }
+        assertEquals((rank + 24) / 25, locator.getTargetPage());
+        assertTrue(locator.getProbes() + " probes", locator.getProbes() <= maxProbes);
+    }
+
+    private static List<LeaderboardEntry> page(int page) {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        for (int rank = (page - 1) * 25 + 1; rank <= Math.min(page * 25, PLAYERS); rank++) {
+            entries.add(new LeaderboardEntry("Player " + rank, rank, 99, xpOf(rank)));
+        }
+        return entries;
+    }
+
+    private static int xpOf(int rank) {
+        return 100_000 + (int) (100_000_000 * Math.exp(-rank / 100_000.0)) - rank / 10;
+    }
+}
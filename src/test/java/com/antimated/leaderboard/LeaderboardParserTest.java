@@ -0,0 +1,87 @@
+package com.antimated.leaderboard;
+
+import okio.Buffer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks both leaderboard parsers against the hiscores pages in the `corpus` resource directory. The pages follow the
+ * markup of the live hiscores, plus noise the streaming parser has to skip: a comment and an inline script that mention
+ * the leaderboard table, and a table written by a script after it. One page has names with entities and non-ASCII
+ * characters.
+ * <p>
+ * Every `name.html` page has a `name.expected` file with one tab separated `rank, name, level, xp` line per row.
+ * Saved pages are added by putting them next to the others and listing them in `index.txt`.
+ */
+@RunWith(Parameterized.class)
+public class LeaderboardParserTest {
+    private static final String CORPUS = "corpus/";
+
+    interface PageParser {
+        LeaderboardResult parse(byte[] page) throws Exception;
+    }
+
+    private static final PageParser STREAMING = page -> LeaderboardStreamParser.parse(new StringReader(new String(page, StandardCharsets.UTF_8)));
+    private static final PageParser STREAMING_WITH_FALLBACK = page -> LeaderboardParser.parse(new Buffer().write(page), StandardCharsets.UTF_8);
+    private static final PageParser JSOUP = page -> LeaderboardParser.parseDocument(new String(page, StandardCharsets.UTF_8));
+
+    @Parameterized.Parameter
+    public String pageName;
+
+    @Parameterized.Parameter(1)
+    public String parserName;
+
+    @Parameterized.Parameter(2)
+    public PageParser parser;
+
+    @Parameterized.Parameters(name = "{0} [{1}]")
+    public static Collection<Object[]> parameters() throws IOException {
+        List<Object[]> parameters = new ArrayList<>();
+        for (String pageName: readLines("index.txt")) {
+            parameters.add(new Object[]{pageName, "streaming", STREAMING});
+            parameters.add(new Object[]{pageName, "streaming with fallback", STREAMING_WITH_FALLBACK});
+            parameters.add(new Object[]{pageName, "jsoup", JSOUP});
+        }
+        return parameters;
+    }
+
+    @Test
+    public void testParse() throws Exception {
+        List<String> actual = new ArrayList<>();
+        for (LeaderboardEntry entry: parser.parse(read(pageName + ".html")).getEntries()) {
+            actual.add(entry.rank + "\t" + entry.name + "\t" + entry.level + "\t" + entry.xp);
+        }
+        assertEquals(readLines(pageName + ".expected"), actual);
+    }
+
+    private static List<String> readLines(String resource) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line: new String(read(resource), StandardCharsets.UTF_8).split("\n")) {
+            line = line.trim();
+            if (!line.isEmpty()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static byte[] read(String resource) throws IOException {
+        try (InputStream in = LeaderboardParserTest.class.getResourceAsStream(CORPUS + resource)) {
+            if (in == null) {
+                throw new IOException("Missing corpus file: " + resource);
+            }
+            return in.readAllBytes();
+        }
+    }
+}